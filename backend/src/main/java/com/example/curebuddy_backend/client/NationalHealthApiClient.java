@@ -11,8 +11,13 @@ public class NationalHealthApiClient {
     private static final String BASE_URL = "https://api.data.gov.in/resource/98fa254e-c5f8-4910-a19b-4828939b477d";
     private static final String API_KEY = "579b464db66ec23bdd000001cdd3946e44ce4aad7209ff7b23ac571b";
 
+    private final RestTemplate restTemplate;
+
+    public NationalHealthApiClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
     public List<Map<String, Object>> fetchHospitals() {
-        RestTemplate restTemplate = new RestTemplate();
         String url = BASE_URL + "?api-key=" + API_KEY + "&format=json&limit=100";  // no city filter here
 
 
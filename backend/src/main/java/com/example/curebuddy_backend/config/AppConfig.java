@@ -1,13 +1,52 @@
 package com.example.curebuddy_backend.config;
 
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
+@EnableConfigurationProperties(UpstreamHttpProperties.class)
 public class AppConfig {
+
+    // Pooled keep-alive connections to the upstream APIs, with connect and read timeouts per host
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient upstreamHttpClient(UpstreamHttpProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(properties.getMaxConnections())
+                        .setMaxConnPerRoute(properties.getMaxConnectionsPerHost())
+                        .setConnectionConfigResolver(route -> {
+                            UpstreamHttpProperties.Host host = properties.hostOrDefaults(route.getTargetHost().getHostName());
+                            return ConnectionConfig.custom()
+                                    .setConnectTimeout(Timeout.ofMilliseconds(host.getConnectTimeoutMs()))
+                                    .setSocketTimeout(Timeout.ofMilliseconds(host.getReadTimeoutMs()))
+                                    .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                                    .build();
+                        })
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(properties.getConnectionRequestTimeoutMs()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                // Retries would hide failures from the circuit breaker and spend rate limit permits unseen
+                .disableAutomaticRetries()
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient upstreamHttpClient, UpstreamHttpInterceptor upstreamHttpInterceptor) {
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(upstreamHttpClient));
+        restTemplate.getInterceptors().add(upstreamHttpInterceptor);
+        return restTemplate;
     }
-}
\ No newline at end of file
+}
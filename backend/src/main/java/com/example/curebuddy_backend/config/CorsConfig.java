@@ -15,7 +15,8 @@ public class CorsConfig {
                 registry.addMapping("/**")
                         .allowedOrigins("http://192.168.8.250:8080") // Allow all origins
                         .allowedMethods("*") // Allow all HTTP methods
-                        .allowedHeaders("*"); // Allow all headers
+                        .allowedHeaders("*") // Allow all headers
+                        .exposedHeaders("X-Next-Cursor"); // Keyset paging cursor of /api/doctor/patient-reports
             }
         };
     }
@@ -0,0 +1,165 @@
+package com.example.curebuddy_backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Creates the indexes declared on the mapped documents once the application is up,
+ * instead of turning on spring.data.mongodb.auto-index-creation for every entity,
+ * then checks every derived repository query against the indexes that actually exist.
+ * A query with no index leading on one of its fields would scan the whole collection:
+ * it is logged, or fails startup when mongo.index-check.fail-on-missing is set.
+ * A Mongo that is unreachable at startup is logged, not fatal; ensureIndex is idempotent on the next start.
+ */
+@Component
+public class MongoIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final ApplicationContext applicationContext;
+
+    @Value("${mongo.index-check.fail-on-missing:false}")
+    private boolean failOnMissing;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+                                 MongoMappingContext mappingContext,
+                                 ApplicationContext applicationContext) {
+        this.mongoTemplate = mongoTemplate;
+        this.mappingContext = mappingContext;
+        this.applicationContext = applicationContext;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        try {
+            ensureIndexes();
+            verifyQueryIndexes();
+        } catch (DataAccessResourceFailureException e) {
+            logger.warn("Mongo is not reachable, skipping index creation and the query index check: {}", e.getMessage());
+        }
+    }
+
+    private void ensureIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mappingContext);
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(Document.class)) {
+                continue;
+            }
+            Class<?> documentType = entity.getType();
+            IndexOperations indexOps = mongoTemplate.indexOps(documentType);
+            resolver.resolveIndexFor(documentType).forEach(index -> {
+                try {
+                    indexOps.ensureIndex(index);
+                } catch (DataAccessResourceFailureException e) {
+                    throw e;
+                } catch (Exception e) {
+                    // e.g. a unique index over existing duplicates; the query check below will report it
+                    logger.warn("Could not create index {} on {}: {}", index.getIndexOptions().get("name"),
+                            entity.getCollection(), e.getMessage());
+                }
+            });
+        }
+    }
+
+    private void verifyQueryIndexes() {
+        Repositories repositories = new Repositories(applicationContext);
+        List<String> problems = new ArrayList<>();
+
+        for (Class<?> domainType : repositories) {
+            MongoPersistentEntity<?> entity = mappingContext.getPersistentEntity(domainType);
+            if (entity == null) {
+                continue;
+            }
+            Set<String> leadingKeys = leadingIndexKeys(domainType);
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+
+            for (Method method : information.getQueryMethods()) {
+                // String queries are written by hand next to their index; only derived queries are checked
+                if (AnnotatedElementUtils.hasAnnotation(method, Query.class)
+                        || AnnotatedElementUtils.hasAnnotation(method, Aggregation.class)) {
+                    continue;
+                }
+                PartTree tree = new PartTree(method.getName(), domainType);
+                for (PartTree.OrPart orPart : tree) {
+                    String problem = checkBranch(orPart, leadingKeys);
+                    if (problem != null) {
+                        problems.add(information.getRepositoryInterface().getSimpleName() + "." + method.getName()
+                                + " on " + entity.getCollection() + ": " + problem);
+                    }
+                }
+            }
+        }
+
+        if (problems.isEmpty()) {
+            logger.info("All derived repository queries are covered by an index");
+            return;
+        }
+        problems.forEach(problem -> logger.warn("Collection scan: {}", problem));
+        if (failOnMissing) {
+            throw new IllegalStateException("Repository queries without a supporting index: " + problems);
+        }
+    }
+
+    // One branch of a derived query can use an index if some index starts with one of its fields
+    private String checkBranch(PartTree.OrPart orPart, Set<String> leadingKeys) {
+        List<String> fields = new ArrayList<>();
+        for (Part part : orPart) {
+            String field = mappingContext.getPersistentPropertyPath(part.getProperty())
+                    .toDotPath(MongoPersistentProperty::getFieldName);
+            if (part.shouldIgnoreCase() != Part.IgnoreCaseType.NEVER) {
+                // Derived IgnoreCase queries become case-insensitive regexes, which cannot seek an index
+                fields.add(field + " (ignore case)");
+                continue;
+            }
+            if (leadingKeys.contains(field)) {
+                return null;
+            }
+            fields.add(field);
+        }
+        // A query with no criteria (findAll...) is a deliberate full read
+        return fields.isEmpty() ? null : "no index leads with any of " + fields;
+    }
+
+    private Set<String> leadingIndexKeys(Class<?> domainType) {
+        Set<String> keys = new HashSet<>();
+        keys.add("_id");
+        for (IndexInfo info : mongoTemplate.indexOps(domainType).getIndexInfo()) {
+            List<IndexField> indexFields = info.getIndexFields();
+            if (!indexFields.isEmpty()) {
+                keys.add(indexFields.get(0).getKey());
+            }
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.curebuddy_backend.config;
+
+import com.example.curebuddy_backend.util.CircuitBreaker;
+import com.example.curebuddy_backend.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Guards every call made through the shared RestTemplate, per upstream host: a token bucket holds the host
+ * to its configured rate (waiting at most upstream.http.rate-limit-max-wait-ms for a permit), and a circuit
+ * breaker fails calls fast while the host keeps erroring. Connection errors, 5xx and 429 count as failures.
+ * Both are per JVM: a host's configured rate is the total for the deployment and is split evenly across
+ * upstream.http.replicas, so running more instances does not multiply the load on a 1 req/s API like Nominatim.
+ * Latency is recorded as upstream.http.requests{host, outcome}; refused calls as upstream.http.rejected{host, reason}.
+ */
+@Component
+public class UpstreamHttpInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamHttpInterceptor.class);
+
+    private final UpstreamHttpProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, HostGuard> guards = new ConcurrentHashMap<>();
+
+    // Surfaces to RestTemplate callers as a ResourceAccessException, like any other connection failure
+    public static class UpstreamUnavailableException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public UpstreamUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    private record HostGuard(TokenBucket rateLimiter, CircuitBreaker circuitBreaker,
+                             Counter circuitOpenRejections, Counter rateLimitRejections) {
+    }
+
+    public UpstreamHttpInterceptor(UpstreamHttpProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        String host = request.getURI().getHost() == null ? "unknown" : request.getURI().getHost().toLowerCase();
+        HostGuard guard = guards.computeIfAbsent(host, this::newGuard);
+
+        // Checked before waiting for a permit, so an open circuit never queues callers behind the rate limit
+        if (guard.circuitBreaker().isRejecting()) {
+            guard.circuitOpenRejections().increment();
+            throw new UpstreamUnavailableException("Circuit open for " + host);
+        }
+        if (guard.rateLimiter() != null && !acquirePermit(guard.rateLimiter())) {
+            guard.rateLimitRejections().increment();
+            throw new UpstreamUnavailableException("Rate limit for " + host + " exhausted");
+        }
+        if (!guard.circuitBreaker().tryAcquire()) {
+            guard.circuitOpenRejections().increment();
+            throw new UpstreamUnavailableException("Circuit open for " + host);
+        }
+
+        long start = System.nanoTime();
+        String outcome = "IO_ERROR";
+        boolean failed = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            HttpStatusCode status = response.getStatusCode();
+            outcome = status.is2xxSuccessful() ? "SUCCESS"
+                    : status.is3xxRedirection() ? "REDIRECTION"
+                    : status.is4xxClientError() ? "CLIENT_ERROR"
+                    : "SERVER_ERROR";
+            failed = status.is5xxServerError() || status.value() == 429;
+            return response;
+        } finally {
+            if (failed) {
+                if (guard.circuitBreaker().onFailure()) {
+                    logger.warn("Upstream {} is failing ({}), refusing calls for {} ms", host, outcome, properties.getCircuitOpenMs());
+                }
+            } else {
+                guard.circuitBreaker().onSuccess();
+            }
+            Timer.builder("upstream.http.requests")
+                    .tag("host", host)
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean acquirePermit(TokenBucket rateLimiter) throws IOException {
+        try {
+            return rateLimiter.tryAcquire(TimeUnit.MILLISECONDS.toNanos(properties.getRateLimitMaxWaitMs()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an upstream rate limit permit");
+        }
+    }
+
+    private HostGuard newGuard(String host) {
+        UpstreamHttpProperties.Host settings = properties.hostOrDefaults(host);
+        // This instance's share of the deployment-wide limit
+        int replicas = Math.max(1, properties.getReplicas());
+        TokenBucket rateLimiter = settings.getRatePerSecond() > 0
+                ? new TokenBucket(settings.getRatePerSecond() / replicas, Math.max(1, settings.getBurst() / replicas))
+                : null;
+        CircuitBreaker circuitBreaker = new CircuitBreaker(properties.getCircuitFailureThreshold(), properties.getCircuitOpenMs());
+        Gauge.builder("upstream.http.circuit.open", circuitBreaker, breaker -> breaker.state() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .tag("host", host)
+                .register(meterRegistry);
+        return new HostGuard(rateLimiter, circuitBreaker,
+                meterRegistry.counter("upstream.http.rejected", "host", host, "reason", "circuit-open"),
+                meterRegistry.counter("upstream.http.rejected", "host", host, "reason", "rate-limited"));
+    }
+}
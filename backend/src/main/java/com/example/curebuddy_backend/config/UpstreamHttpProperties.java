@@ -0,0 +1,50 @@
+package com.example.curebuddy_backend.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Settings for the shared outbound HTTP client; entries under hosts override the defaults for one host
+@Data
+@ConfigurationProperties(prefix = "upstream.http")
+public class UpstreamHttpProperties {
+
+    private int maxConnections = 100;
+    private int maxConnectionsPerHost = 20;
+    private long connectionRequestTimeoutMs = 2000;
+    private long connectTimeoutMs = 3000;
+    private long readTimeoutMs = 10000;
+
+    // Rates and bursts are for the whole deployment; each instance enforces its share, rate / replicas
+    private int replicas = 1;
+
+    // 0 = no rate limit
+    private double ratePerSecond = 0;
+    private int burst = 1;
+    private long rateLimitMaxWaitMs = 5000;
+
+    private int circuitFailureThreshold = 5;
+    private long circuitOpenMs = 30000;
+
+    private Map<String, Host> hosts = new HashMap<>();
+
+    @Data
+    public static class Host {
+        private Long connectTimeoutMs;
+        private Long readTimeoutMs;
+        private Double ratePerSecond;
+        private Integer burst;
+    }
+
+    public Host hostOrDefaults(String host) {
+        Host configured = host == null ? null : hosts.get(host.toLowerCase());
+        Host resolved = new Host();
+        resolved.setConnectTimeoutMs(configured != null && configured.getConnectTimeoutMs() != null ? configured.getConnectTimeoutMs() : connectTimeoutMs);
+        resolved.setReadTimeoutMs(configured != null && configured.getReadTimeoutMs() != null ? configured.getReadTimeoutMs() : readTimeoutMs);
+        resolved.setRatePerSecond(configured != null && configured.getRatePerSecond() != null ? configured.getRatePerSecond() : ratePerSecond);
+        resolved.setBurst(configured != null && configured.getBurst() != null ? configured.getBurst() : burst);
+        return resolved;
+    }
+}
@@ -4,13 +4,14 @@ import com.example.curebuddy_backend.auth.*;
 import com.example.curebuddy_backend.model.User;
 import com.example.curebuddy_backend.repository.UserRepository;
 import com.example.curebuddy_backend.service.JwtService;
+import com.example.curebuddy_backend.service.UserCacheService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Optional;
@@ -22,13 +23,17 @@ public class AuthController {
     @Autowired
     UserRepository repo;
 
+    @Autowired
+    UserCacheService userCache;
+
     @Autowired
     AuthenticationManager authManager;
 
     @Autowired
     JwtService jwtService;
 
-    BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    PasswordEncoder passwordEncoder;
 
     @PostMapping("/register")
     public ResponseEntity<String> register(@RequestBody RegisterRequest request) {
@@ -52,7 +57,7 @@ public class AuthController {
             user.setLicenseVerified(false); // Pending admin verification
         }
 
-        repo.save(user);
+        userCache.save(user);
         return ResponseEntity.ok("User registered successfully!");
     }
 
@@ -63,7 +68,7 @@ public class AuthController {
                 new UsernamePasswordAuthenticationToken(req.email, req.password)
         );
 
-        User user = repo.findByEmail(req.email).orElseThrow(() -> new RuntimeException("User not found"));
+        User user = userCache.findByEmail(req.email).orElseThrow(() -> new RuntimeException("User not found"));
 
         // Block unverified doctor login
         if (user.getRole().equalsIgnoreCase("DOCTOR") && !user.isLicenseVerified()) {
@@ -88,7 +93,7 @@ public class AuthController {
 
         User user = doctor.get();
         user.setLicenseVerified(true); // Set to true once verified by admin
-        repo.save(user);
+        userCache.save(user);
 
         return ResponseEntity.ok("Doctor verified successfully.");
     }
@@ -1,11 +1,14 @@
 package com.example.curebuddy_backend.controller;
 
 
+import com.example.curebuddy_backend.dto.DoctorReportSummaryResponse;
+import com.example.curebuddy_backend.dto.ReportCursor;
 import com.example.curebuddy_backend.model.HealthReport;
 import com.example.curebuddy_backend.repository.HealthReportRepository;
-import com.example.curebuddy_backend.service.EmailService;
-import com.example.curebuddy_backend.service.TwilioService;
+import com.example.curebuddy_backend.repository.HealthReportSummary;
+import com.example.curebuddy_backend.service.NotificationOutboxService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -21,29 +24,52 @@ public class DoctorController {
     private HealthReportRepository repo;
 
     @Autowired
-    private EmailService emailService;
+    private NotificationOutboxService outbox;
 
-    @Autowired
-    private TwilioService twilioService;
+    @Value("${doctor.reports.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${doctor.reports.max-page-size:500}")
+    private int maxPageSize;
 
+    // Newest reports first, one keyset page at a time (?limit=, default doctor.reports.page-size): pass the
+    // X-Next-Cursor header back as ?cursor= for the next page. The header is absent on the last page.
     @GetMapping("/patient-reports")
-    public ResponseEntity<?> getAllPatientReports() {
-        List<HealthReport> reports = repo.findAll();
-        List<Map<String, Object>> response = new ArrayList<>();
-
-        for (HealthReport report : reports) {
-            Map<String, Object> map = new HashMap<>();
-            map.put("id", report.getId()); // <<< --- ADD THIS LINE
-            map.put("patientEmail", report.getPatientEmail());
-            map.put("fileName", report.getFileName());
-            map.put("healthRiskPrediction", report.getHealthRiskPrediction());
-            map.put("doctorRemarks", report.getDoctorRemarks());
-            map.put("doctorAdvice", report.getDoctorAdvice());
-            // You might also want to send uploadedAt if useful for doctors
-            map.put("uploadedAt", report.getUploadedAt());
-            response.add(map);
+    public ResponseEntity<?> getAllPatientReports(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String risk,
+            @RequestParam(defaultValue = "false") boolean unansweredOnly) {
+
+        ReportCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = ReportCursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
         }
-        return ResponseEntity.ok(response);
+        String riskFilter = risk != null && !risk.isBlank() ? risk.trim().toUpperCase() : null;
+        int pageSize = Math.min(Math.max(1, limit != null ? limit : defaultPageSize), maxPageSize);
+
+        // One extra row tells us whether another page exists
+        List<HealthReportSummary> rows = repo.findSummaryPage(
+                after != null ? after.uploadedAt() : null,
+                after != null ? after.id() : null,
+                riskFilter, unansweredOnly, pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<HealthReportSummary> page = hasMore ? rows.subList(0, pageSize) : rows;
+        List<DoctorReportSummaryResponse> response = page.stream()
+                .map(DoctorReportSummaryResponse::from)
+                .toList();
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (hasMore) {
+            HealthReportSummary last = page.get(page.size() - 1);
+            builder.header("X-Next-Cursor", new ReportCursor(last.getUploadedAt(), last.getId()).encode());
+        }
+        return builder.body(response);
     }
 
 
@@ -68,12 +94,14 @@ public class DoctorController {
         report.setDoctorRespondedAt(LocalDateTime.now());
         repo.save(report);
 
-        // Notify patient via Email and SMS
+        // Notify patient via Email and SMS, delivered in the background by the outbox
+        String notificationKey = "doctor-remarks:" + reportId + ":" + report.getDoctorRespondedAt();
         String patientEmail = report.getPatientEmail();
         String patientPhoneNumber = "+917339202176"; // use real if stored, else dummy
 
         // Email
-        emailService.sendEmail(
+        outbox.enqueueEmail(
+                notificationKey,
                 patientEmail,
                 "Your Health Report Reviewed - Cure Buddy",
                 "Dear Patient,\n\nYour health report was reviewed.\n\nRemarks: " + remarks +
@@ -81,7 +109,8 @@ public class DoctorController {
         );
 
         // SMS
-        twilioService.sendSms(
+        outbox.enqueueSms(
+                notificationKey,
                 patientPhoneNumber,
                 "Your health report has been reviewed by Cure Buddy Doctor. Please check app for advice."
         );
@@ -100,24 +129,15 @@ public class DoctorController {
 
     @GetMapping("/patient-history/{email}")
     public ResponseEntity<?> getPatientHistory(@PathVariable String email) {
-        List<HealthReport> reports = repo.findByPatientEmail(email);
+        List<HealthReportSummary> reports = repo.findSummariesByPatientEmail(email);
 
         if (reports.isEmpty()) {
             return ResponseEntity.status(404).body("No reports found for this patient.");
         }
 
-        List<Map<String, Object>> response = new ArrayList<>();
-
-        for (HealthReport report : reports) {
-            Map<String, Object> map = new HashMap<>();
-            map.put("id", report.getId()); // <<< --- ADD THIS LINE
-            map.put("fileName", report.getFileName());
-            map.put("uploadedAt", report.getUploadedAt());
-            map.put("healthRiskPrediction", report.getHealthRiskPrediction());
-            map.put("doctorRemarks", report.getDoctorRemarks());
-            map.put("doctorAdvice", report.getDoctorAdvice());
-            response.add(map);
-        }
+        List<DoctorReportSummaryResponse> response = reports.stream()
+                .map(DoctorReportSummaryResponse::from)
+                .toList();
 
         return ResponseEntity.ok(response);
     }
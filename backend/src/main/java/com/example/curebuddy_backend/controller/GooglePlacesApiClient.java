@@ -31,8 +31,9 @@ public class GooglePlacesApiClient {
 
     private final RestTemplate restTemplate;
 
-    public GooglePlacesApiClient() {
-        this.restTemplate = new RestTemplate();
+    // The shared upstream client: pooled connections, timeouts, rate limit and circuit breaker per host
+    public GooglePlacesApiClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
     }
 
     public List<Map<String, Object>> findLabsNearby(String state, String district) {
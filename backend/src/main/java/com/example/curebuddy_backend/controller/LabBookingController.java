@@ -5,8 +5,7 @@ import com.example.curebuddy_backend.service.LabLocatorService;   // ADD THIS -
 import com.example.curebuddy_backend.model.Booking;
 import com.example.curebuddy_backend.model.LabResult; // ENSURE THIS IMPORT IS CORRECT
 import com.example.curebuddy_backend.repository.BookingRepository;
-import com.example.curebuddy_backend.service.EmailService;
-import com.example.curebuddy_backend.service.TwilioService;
+import com.example.curebuddy_backend.service.NotificationOutboxService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,9 +30,7 @@ public class LabBookingController {
     @Autowired
     private BookingRepository bookingRepo;
     @Autowired
-    private EmailService emailService;
-    @Autowired
-    private TwilioService twilioService;
+    private NotificationOutboxService outbox;
 
     @GetMapping("/providers")
     public ResponseEntity<?> getLabProviders(
@@ -78,22 +75,23 @@ public class LabBookingController {
         logger.info("Booking request for test '{}' at '{}' by user '{}'", bookingRequest.getSelectedTest(), bookingRequest.getProviderName(), email);
         bookingRequest.setPatientEmail(email);
         bookingRequest.setBookingDate(LocalDateTime.now());
-        bookingRepo.save(bookingRequest);
+        bookingRequest = bookingRepo.save(bookingRequest);
+        String notificationKey = "booking:" + bookingRequest.getId();
 
         Random random = new Random();
         // Generate a price between, say, 200 and 1500
         double dummyPrice = 200 + (1500 - 200) * random.nextDouble();
         try {
-            emailService.sendEmail(email, "Cure Buddy Booking Confirmation", "Dear Patient,\n\nYour test " + bookingRequest.getSelectedTest() + " with " + bookingRequest.getProviderName() + " has been successfully booked.\n\nStay Healthy!");
+            outbox.enqueueEmail(notificationKey, email, "Cure Buddy Booking Confirmation", "Dear Patient,\n\nYour test " + bookingRequest.getSelectedTest() + " with " + bookingRequest.getProviderName() + " has been successfully booked.\n\nStay Healthy!");
         } catch (Exception e) {
-            logger.error("Failed to send booking confirmation email to {}: {}", email, e.getMessage());
+            logger.error("Failed to queue booking confirmation email to {}: {}", email, e.getMessage());
         }
         String patientPhone = "+917339202176"; // Placeholder - Consider fetching actual user phone
         if (patientPhone != null && !patientPhone.trim().isEmpty()) {
             try {
-                twilioService.sendSms(patientPhone, "Booking Confirmed: " + bookingRequest.getSelectedTest() + " with " + bookingRequest.getProviderName() + " - Cure Buddy");
+                outbox.enqueueSms(notificationKey, patientPhone, "Booking Confirmed: " + bookingRequest.getSelectedTest() + " with " + bookingRequest.getProviderName() + " - Cure Buddy");
             } catch (Exception e) {
-                logger.error("Failed to send booking confirmation SMS to {}: {}", patientPhone, e.getMessage());
+                logger.error("Failed to queue booking confirmation SMS to {}: {}", patientPhone, e.getMessage());
             }
         } else {
             logger.warn("Patient phone number not available for user {}. SMS not sent.", email);
@@ -2,16 +2,16 @@ package com.example.curebuddy_backend.controller;
 
 import com.example.curebuddy_backend.model.MedicineReminder;
 import com.example.curebuddy_backend.repository.MedicineReminderRepository;
-import com.example.curebuddy_backend.service.EmailService;
-import com.example.curebuddy_backend.service.TwilioService;
+import com.example.curebuddy_backend.service.MedicineReminderScheduler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalTime;
-import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/medicine")
@@ -21,45 +21,56 @@ public class MedicineReminderController {
     private MedicineReminderRepository reminderRepo;
 
     @Autowired
-    private EmailService emailService;
-
-    @Autowired
-    private TwilioService twilioService;
+    private MedicineReminderScheduler reminderScheduler;
 
     @PostMapping("/reminders")
     public ResponseEntity<?> setReminder(Authentication auth, @RequestBody MedicineReminder reminder) {
         reminder.setPatientEmail(auth.getName());
-        reminderRepo.save(reminder);
+        MedicineReminder saved = reminderRepo.save(reminder);
+        reminderScheduler.schedule(saved);
         return ResponseEntity.ok("Reminder set successfully!");
     }
 
-    @GetMapping("/my-reminders")
-    public ResponseEntity<?> getMyReminders(Authentication auth) {
-        var reminders = reminderRepo.findAll()
-                .stream()
-                .filter(r -> r.getPatientEmail().equals(auth.getName()))
-                .toList();
-        return ResponseEntity.ok(reminders);
+    @PutMapping("/reminders/{id}")
+    public ResponseEntity<?> updateReminder(Authentication auth, @PathVariable String id, @RequestBody MedicineReminder update) {
+        Optional<MedicineReminder> existing = findOwnedReminder(auth, id);
+        if (existing.isEmpty()) return ResponseEntity.status(404).body("Reminder not found");
+
+        MedicineReminder reminder = existing.get();
+        if (update.getMedicineName() != null) reminder.setMedicineName(update.getMedicineName());
+        if (update.getReminderTime() != null) reminder.setReminderTime(update.getReminderTime());
+        reminderScheduler.schedule(reminderRepo.save(reminder));
+        return ResponseEntity.ok("Reminder updated successfully!");
     }
 
-    @Scheduled(cron = "0 * * * * *")  // Check every minute (for testing)
-    public void sendReminders() {
-        LocalTime now = LocalTime.now().withSecond(0).withNano(0);
-        List<MedicineReminder> reminders = reminderRepo.findByReminderTime(now);
+    @DeleteMapping("/reminders/{id}")
+    public ResponseEntity<?> deleteReminder(Authentication auth, @PathVariable String id) {
+        if (findOwnedReminder(auth, id).isEmpty()) return ResponseEntity.status(404).body("Reminder not found");
 
-        for (MedicineReminder reminder : reminders) {
-            // Send Email
-            emailService.sendEmail(
-                    reminder.getPatientEmail(),
-                    "Medicine Reminder 💊",
-                    "Dear Patient,\n\nPlease take your medicine: " + reminder.getMedicineName() + ".\n\nStay Healthy, Cure Buddy."
-            );
+        reminderRepo.deleteById(id);
+        reminderScheduler.cancel(id);
+        return ResponseEntity.ok("Reminder deleted successfully!");
+    }
 
-            // Send SMS (dummy for now)
-            twilioService.sendSms(
-                    "+917339202176",  // Replace with real phone if stored
-                    "Medicine Reminder: Take " + reminder.getMedicineName() + " - Cure Buddy"
-            );
+    // Someone else's reminder is reported as missing rather than forbidden
+    private Optional<MedicineReminder> findOwnedReminder(Authentication auth, String id) {
+        return reminderRepo.findById(id).filter(r -> auth.getName().equals(r.getPatientEmail()));
+    }
+
+    // Whole list by default; with ?page= (and optional size) one page at a time, X-Has-More telling whether another follows
+    @GetMapping("/my-reminders")
+    public ResponseEntity<?> getMyReminders(Authentication auth,
+                                            @RequestParam(required = false) Integer page,
+                                            @RequestParam(defaultValue = "50") int size) {
+        Sort byTime = Sort.by("reminderTime");
+        if (page == null) {
+            return ResponseEntity.ok(reminderRepo.findByPatientEmail(auth.getName(), byTime));
         }
+
+        PageRequest pageRequest = PageRequest.of(Math.max(0, page), Math.min(Math.max(1, size), 200), byTime);
+        Slice<MedicineReminder> slice = reminderRepo.findByPatientEmail(auth.getName(), pageRequest);
+        return ResponseEntity.ok()
+                .header("X-Has-More", String.valueOf(slice.hasNext()))
+                .body(slice.getContent());
     }
 }
@@ -2,6 +2,7 @@ package com.example.curebuddy_backend.controller;
 
 import com.example.curebuddy_backend.model.CheckupSchedule;
 import com.example.curebuddy_backend.repository.CheckupRepository;
+import com.example.curebuddy_backend.service.ReminderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -16,10 +17,14 @@ public class PatientController {
     @Autowired
     private CheckupRepository repo;
 
+    @Autowired
+    private ReminderService reminderService;
+
     @PostMapping("/schedule")
     public ResponseEntity<?> scheduleCheckup(@RequestBody CheckupSchedule schedule, Authentication auth) {
         String email = auth.getName();
         schedule.setPatientEmail(email);
+        reminderService.prepareSchedule(schedule);
         repo.save(schedule);
         return ResponseEntity.ok("Checkup scheduled successfully!");
     }
@@ -43,6 +48,7 @@ public class PatientController {
         schedule.setVitalName(updated.getVitalName());
         schedule.setScheduledDateTime(updated.getScheduledDateTime());
         schedule.setFrequency(updated.getFrequency());
+        reminderService.prepareSchedule(schedule);
 
         repo.save(schedule);
         return ResponseEntity.ok("Schedule updated successfully!");
@@ -0,0 +1,33 @@
+package com.example.curebuddy_backend.controller;
+
+import com.example.curebuddy_backend.service.PharmacyIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Admin-only (see SecurityConfig): inspect and rebuild the offline pharmacy index
+@RestController
+@RequestMapping("/api/admin/pharmacy-index")
+public class PharmacyIndexController {
+
+    @Autowired
+    private PharmacyIndexService pharmacyIndexService;
+
+    @GetMapping
+    public ResponseEntity<?> status() {
+        return ResponseEntity.ok(pharmacyIndexService.status());
+    }
+
+    // Call after replacing the OSM extract on disk
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuild() {
+        try {
+            int count = pharmacyIndexService.rebuild();
+            return ResponseEntity.ok(Map.of("pharmacies", count));
+        } catch (Exception e) {
+            return ResponseEntity.status(500).body("Failed to rebuild pharmacy index: " + e.getMessage());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.curebuddy_backend.controller;
 
 import com.example.curebuddy_backend.service.PharmacyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,9 +13,31 @@ public class PharmacyLocatorController {
     @Autowired
     private PharmacyService pharmacyService;
 
+    @Value("${pharmacy.nearby.max-radius-m:50000}")
+    private int maxRadiusMeters;
+
+    @Value("${pharmacy.nearby.max-results:100}")
+    private int maxResults;
+
     @GetMapping("/locator")
     public ResponseEntity<?> locatePharmacies(@RequestParam String city) {
         var pharmacies = pharmacyService.findByCity(city);
         return ResponseEntity.ok(pharmacies);
     }
+
+    // The k closest pharmacies to a point, nearest first, each with its distance in meters
+    @GetMapping("/nearby")
+    public ResponseEntity<?> nearbyPharmacies(@RequestParam double lat,
+                                              @RequestParam double lon,
+                                              @RequestParam(defaultValue = "5000") int radius,
+                                              @RequestParam(defaultValue = "20") int k) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            return ResponseEntity.badRequest().body("Invalid coordinates.");
+        }
+        if (radius <= 0 || k <= 0) {
+            return ResponseEntity.badRequest().body("radius and k must be positive.");
+        }
+        return ResponseEntity.ok(pharmacyService.findNearby(lat, lon,
+                Math.min(radius, maxRadiusMeters), Math.min(k, maxResults)));
+    }
 }
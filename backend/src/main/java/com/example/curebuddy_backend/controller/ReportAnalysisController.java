@@ -1,11 +1,12 @@
 package com.example.curebuddy_backend.controller;
 
-import com.example.curebuddy_backend.service.EmailService;
-import com.example.curebuddy_backend.service.TwilioService;
 import com.example.curebuddy_backend.model.HealthReport;
 import com.example.curebuddy_backend.repository.HealthReportRepository;
+import com.example.curebuddy_backend.service.NotificationOutboxService;
+import com.example.curebuddy_backend.service.ReportTextService;
 import com.example.curebuddy_backend.service.WekaAnalysisService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.Optional;
@@ -23,10 +24,10 @@ public class ReportAnalysisController {
     private WekaAnalysisService wekaService;
 
     @Autowired
-    private EmailService emailService;
+    private NotificationOutboxService outbox;
 
     @Autowired
-    private TwilioService twilioService;
+    private ReportTextService reportTextService;
 
     @GetMapping("/report-analysis/{id}")
     public ResponseEntity<?> analyzeReport(@PathVariable String id) throws Exception {
@@ -34,7 +35,11 @@ public class ReportAnalysisController {
         if (reportOpt.isEmpty()) return ResponseEntity.status(404).body("Report not found");
 
         HealthReport report = reportOpt.get();
-        String text = report.getExtractedText();
+        if (!report.isExtractionFinished()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Report text is still being extracted (" + report.getExtractionStatus() + "). Please try again shortly.");
+        }
+        String text = reportTextService.loadText(report);
 
 // After extraction
         double bloodSugar = extractBloodSugar(text);
@@ -62,9 +67,12 @@ public class ReportAnalysisController {
         if (risk.equalsIgnoreCase("HIGH") || risk.equalsIgnoreCase("CRITICAL")) {
             String patientEmail = report.getPatientEmail();
             String patientPhoneNumber = "+917339202176";  // replace with real if stored in DB
+            // One alert per report and risk level, however often the analysis is re-run
+            String notificationKey = "risk-alert:" + report.getId() + ":" + risk.toUpperCase();
 
             // Send Email
-            emailService.sendEmail(
+            outbox.enqueueEmail(
+                    notificationKey,
                     patientEmail,
                     "Urgent Health Alert from Cure Buddy 🚨",
                     "Dear Patient,\n\nYour health risk level is detected as " + risk +
@@ -72,7 +80,8 @@ public class ReportAnalysisController {
             );
 
             // Send SMS
-            twilioService.sendSms(
+            outbox.enqueueSms(
+                    notificationKey,
                     patientPhoneNumber,
                     "🚨 Urgent: Your health risk is " + risk + ". Please consult doctor. - Cure Buddy"
             );
@@ -1,24 +1,26 @@
 package com.example.curebuddy_backend.controller;
 
+import com.example.curebuddy_backend.dto.PatientReportSummaryResponse;
+import com.example.curebuddy_backend.model.ExtractionStatus;
 import com.example.curebuddy_backend.model.HealthReport;
 import com.example.curebuddy_backend.repository.HealthReportRepository;
-import org.apache.pdfbox.Loader;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.text.PDFTextStripper;
+import com.example.curebuddy_backend.service.ReportExtractionService;
+import com.example.curebuddy_backend.service.ReportStorageService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus; // Added for explicit status codes
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -29,7 +31,11 @@ public class ReportController {
     @Autowired
     private HealthReportRepository repo;
 
-    private final String uploadDir = "uploads/";
+    @Autowired
+    private ReportExtractionService extractionService;
+
+    @Autowired
+    private ReportStorageService storageService;
 
     @PostMapping("/upload-report")
     public ResponseEntity<?> uploadReport(@RequestParam("file") MultipartFile file, Authentication auth) throws IOException {
@@ -42,74 +48,127 @@ public class ReportController {
         String fileName = StringUtils.cleanPath(Objects.requireNonNull(file.getOriginalFilename()));
         String fileType = file.getContentType();
 
-        // Create uploads directory if not exist
-        File directory = new File(uploadDir);
-        if (!directory.exists()) {
-            directory.mkdirs();
+        // Save file under its content hash; identical bytes are stored only once
+        ReportStorageService.StoredFile stored;
+        try (InputStream in = file.getInputStream()) {
+            stored = storageService.store(in, fileName);
+        } catch (ReportStorageService.UploadTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
         }
 
-        // Save file
-        Path filePath = Paths.get(uploadDir + fileName);
-        Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        return ResponseEntity.ok(saveUploadedReport(email, fileName, fileType, stored));
+    }
 
-        // Extract text if PDF
-        String extractedText = "";
-        if (fileType != null && fileType.equalsIgnoreCase("application/pdf")) {
-            extractedText = extractTextFromPdf(filePath.toString());
+    // Streaming variant of /upload-report: the raw request body (no multipart) is written straight to
+    // storage through a fixed-size buffer, e.g. POST /upload-report/stream?fileName=lab.pdf with Content-Type: application/pdf
+    @PostMapping("/upload-report/stream")
+    public ResponseEntity<?> uploadReportStream(@RequestParam("fileName") String originalFileName,
+                                                HttpServletRequest request,
+                                                Authentication auth) throws IOException {
+        String email = auth.getName();
+        String fileName = StringUtils.getFilename(StringUtils.cleanPath(originalFileName));
+        if (fileName == null || fileName.isBlank()) {
+            return ResponseEntity.badRequest().body("A file name is required");
+        }
+
+        long declaredLength = request.getContentLengthLong();
+        if (declaredLength == 0) {
+            return ResponseEntity.badRequest().body("No file uploaded");
+        }
+        if (declaredLength > storageService.getMaxUploadBytes()) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body("Upload exceeds the maximum size of " + storageService.getMaxUploadBytes() + " bytes");
         }
 
-        // Save metadata and extracted text in MongoDB
+        ReportStorageService.StoredFile stored;
+        try (ReadableByteChannel body = Channels.newChannel(request.getInputStream())) {
+            stored = storageService.store(body, fileName);
+        } catch (ReportStorageService.UploadTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(e.getMessage());
+        }
+        if (stored.size() == 0) {
+            return ResponseEntity.badRequest().body("No file uploaded");
+        }
+
+        return ResponseEntity.ok(saveUploadedReport(email, fileName, request.getContentType(), stored));
+    }
+
+    private Map<String, Object> saveUploadedReport(String email, String fileName, String fileType,
+                                                   ReportStorageService.StoredFile stored) {
+        // Save metadata right away; PDF text is extracted in the background
         HealthReport report = new HealthReport();
         report.setPatientEmail(email);
         report.setFileName(fileName);
         report.setFileType(fileType);
+        report.setContentHash(stored.contentHash());
+        report.setStoragePath(stored.storagePath());
         report.setUploadedAt(LocalDateTime.now());
-        report.setExtractedText(extractedText);
+
+        boolean needsExtraction = false;
+        if (!extractionService.requiresExtraction(fileType)) {
+            report.setExtractionStatus(ExtractionStatus.COMPLETED);
+            report.setExtractedAt(report.getUploadedAt());
+        } else if (!extractionService.reuseExistingExtraction(report)) {
+            report.setExtractionStatus(ExtractionStatus.PENDING);
+            needsExtraction = true;
+        }
 
         HealthReport savedReport = repo.save(report);
+        if (needsExtraction) {
+            extractionService.submit(savedReport);
+        }
 
         Map<String, Object> successResponse = new HashMap<>();
-        successResponse.put("message", "Report uploaded and analyzed successfully!");
+        successResponse.put("message", needsExtraction
+                ? "Report uploaded successfully! Text extraction is in progress."
+                : "Report uploaded successfully!");
         successResponse.put("reportId", savedReport.getId());
         successResponse.put("fileName", savedReport.getFileName());
+        successResponse.put("extractionStatus", savedReport.getExtractionStatus());
+        return successResponse;
+    }
+
+    // Polling endpoint for the background extraction started by /upload-report
+    @GetMapping("/reports/{reportId}/status")
+    public ResponseEntity<?> getExtractionStatus(@PathVariable String reportId, Authentication auth) {
+        Optional<HealthReport> reportOpt = findOwnedReport(reportId, auth.getName());
+        if (reportOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("message", "Report not found with ID: " + reportId));
+        }
 
-        return ResponseEntity.ok(successResponse);
+        HealthReport report = reportOpt.get();
+        Map<String, Object> status = new HashMap<>();
+        status.put("reportId", report.getId());
+        status.put("extractionStatus", report.getExtractionStatus() == null ? ExtractionStatus.COMPLETED : report.getExtractionStatus());
+        status.put("extractionError", report.getExtractionError());
+        status.put("extractedAt", report.getExtractedAt());
+        return ResponseEntity.ok(status);
     }
 
-    private String extractTextFromPdf(String path) {
-        try (PDDocument document = Loader.loadPDF(new File(path))) {
-            if (document.isEncrypted()) {
-                System.err.println("PDF is encrypted, cannot extract text without decryption: " + path);
-                return "";
-            }
-            return new PDFTextStripper().getText(document);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return "Error extracting text from PDF: " + e.getMessage();
+    // Server-sent events variant: emits "status" events and completes once extraction has finished
+    @GetMapping(value = "/reports/{reportId}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamExtractionStatus(@PathVariable String reportId, Authentication auth) {
+        Optional<HealthReport> reportOpt = findOwnedReport(reportId, auth.getName());
+        if (reportOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
+        SseEmitter emitter = extractionService.subscribe(reportOpt.get());
+        return ResponseEntity.ok(emitter);
+    }
+
+    private Optional<HealthReport> findOwnedReport(String reportId, String patientEmail) {
+        return repo.findById(reportId).filter(report -> patientEmail.equals(report.getPatientEmail()));
     }
 
     @GetMapping("/my-reports")
     public ResponseEntity<?> getMyReports(Authentication auth) {
         String email = auth.getName();
-        List<HealthReport> reports = repo.findByPatientEmail(email);
-
-        List<Map<String, Object>> response = new ArrayList<>();
-
-        for (HealthReport report : reports) {
-            Map<String, Object> map = new HashMap<>();
-            map.put("_id", report.getId());
-            map.put("fileName", report.getFileName());
-            map.put("uploadedAt", report.getUploadedAt());
-            map.put("healthRiskPrediction", report.getHealthRiskPrediction());
-            // Adding doctor's remarks and advice here as well for the list view,
-            // so the app can display a summary or indicator if remarks are present.
-            // Values will be null if doctor hasn't responded.
-            map.put("doctorRemarks", report.getDoctorRemarks());
-            map.put("doctorAdvice", report.getDoctorAdvice());
-            map.put("doctorRespondedAt", report.getDoctorRespondedAt());
-            response.add(map);
-        }
+        // Doctor's remarks and advice are included for the list view so the app can show an indicator;
+        // they are null until a doctor has responded.
+        List<PatientReportSummaryResponse> response = repo.findSummariesByPatientEmail(email).stream()
+                .map(PatientReportSummaryResponse::from)
+                .toList();
 
         return ResponseEntity.ok(response);
     }
@@ -146,6 +205,7 @@ public class ReportController {
         reportDetails.put("uploadedAt", report.getUploadedAt());
         reportDetails.put("healthRiskPrediction", report.getHealthRiskPrediction());
         reportDetails.put("fileType", report.getFileType()); // Might be useful for client
+        reportDetails.put("extractionStatus", report.getExtractionStatus() == null ? ExtractionStatus.COMPLETED : report.getExtractionStatus());
         // reportDetails.put("extractedText", report.getExtractedText()); // Usually not sent to client unless specifically needed due to size
 
         // Doctor's response details
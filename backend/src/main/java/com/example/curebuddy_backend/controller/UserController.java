@@ -1,9 +1,13 @@
 package com.example.curebuddy_backend.controller;
 
 import com.example.curebuddy_backend.auth.UpdateRequest;
+import com.example.curebuddy_backend.dto.AdminReportSummaryResponse;
 import com.example.curebuddy_backend.model.User;
 import com.example.curebuddy_backend.repository.HealthReportRepository;
 import com.example.curebuddy_backend.repository.UserRepository;
+import com.example.curebuddy_backend.service.JwtAuthenticationCache;
+import com.example.curebuddy_backend.service.TokenRevocationService;
+import com.example.curebuddy_backend.service.UserCacheService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -11,6 +15,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -26,6 +31,14 @@ public class UserController {
     @Autowired
     private HealthReportRepository reportRepo;
 
+    @Autowired
+    private JwtAuthenticationCache authenticationCache;
+
+    @Autowired
+    private TokenRevocationService revocationService;
+
+    @Autowired
+    private UserCacheService userCache;
 
     @Autowired
     public UserController(UserRepository repo) {
@@ -40,7 +53,7 @@ public class UserController {
     @GetMapping("/user/me")
     public ResponseEntity<?> getMyInfo(Authentication auth) {
         String email = auth.getName();
-        Optional<User> userOpt = repo.findByEmail(email);
+        Optional<User> userOpt = userCache.findByEmail(email);
 
         if (userOpt.isEmpty()) return ResponseEntity.status(404).body("User not found");
 
@@ -56,7 +69,7 @@ public class UserController {
     @GetMapping("/admin/users")
     public ResponseEntity<?> listAllUsers(Authentication auth) {
         String email = auth.getName();
-        Optional<User> userOpt = repo.findByEmail(email);
+        Optional<User> userOpt = userCache.findByEmail(email);
         if (userOpt.isEmpty() || !userOpt.get().getRole().equalsIgnoreCase("ADMIN")) {
             return ResponseEntity.status(403).body("Access denied. Only admin allowed.");
         }
@@ -73,28 +86,25 @@ public class UserController {
         User user = userOpt.get();
         if (req.name != null) user.setName(req.name);
         if (req.password != null) user.setPassword(passwordEncoder.encode(req.password));
-        repo.save(user);
+        userCache.save(user);
+        if (req.password != null) {
+            // Tokens issued with the old password stop working in stateless mode
+            revocationService.revokeUser(email);
+        } else {
+            authenticationCache.evictUser(email);
+        }
 
         return ResponseEntity.ok("Profile updated successfully!");
     }
     @GetMapping("/admin/reports")
     public ResponseEntity<?> allReports(Authentication auth) {
-        Optional<User> admin = repo.findByEmail(auth.getName());
+        Optional<User> admin = userCache.findByEmail(auth.getName());
         if (admin.isEmpty() || !admin.get().getRole().equalsIgnoreCase("ADMIN"))
             return ResponseEntity.status(403).body("Access denied.");
 
-        var reports = reportRepo.findAll();
-
-        var reportDtos = reports.stream().map(report -> {
-            Map<String, Object> map = new HashMap<>();
-            map.put("fileName", report.getFileName());
-            map.put("fileType", report.getFileType());
-            map.put("uploadedAt", report.getUploadedAt());
-            map.put("healthRiskPrediction", report.getHealthRiskPrediction());
-            map.put("downloadLink", "/uploads/" + report.getFileName());
-            return map;
-        }).toList();
-
+        List<AdminReportSummaryResponse> reportDtos = reportRepo.findAllSummaries().stream()
+                .map(AdminReportSummaryResponse::from)
+                .toList();
 
         return ResponseEntity.ok(reportDtos);
     }
@@ -102,16 +112,21 @@ public class UserController {
 
     @DeleteMapping("/admin/delete-user/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable String id, Authentication auth) {
-        Optional<User> admin = repo.findByEmail(auth.getName());
+        Optional<User> admin = userCache.findByEmail(auth.getName());
         if (admin.isEmpty() || !admin.get().getRole().equalsIgnoreCase("ADMIN"))
             return ResponseEntity.status(403).body("Access denied.");
+        Optional<User> deleted = repo.findById(id);
         repo.deleteById(id);
+        deleted.ifPresent(user -> {
+            userCache.evict(user.getEmail());
+            revocationService.revokeUser(user.getEmail());
+        });
         return ResponseEntity.ok("User deleted successfully.");
     }
 
     @GetMapping("/admin/dashboard")
     public ResponseEntity<?> dashboardStats(Authentication auth) {
-        Optional<User> admin = repo.findByEmail(auth.getName());
+        Optional<User> admin = userCache.findByEmail(auth.getName());
         if (admin.isEmpty() || !admin.get().getRole().equalsIgnoreCase("ADMIN"))
             return ResponseEntity.status(403).body("Access denied.");
 
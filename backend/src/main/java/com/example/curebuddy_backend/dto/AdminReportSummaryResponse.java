@@ -0,0 +1,23 @@
+package com.example.curebuddy_backend.dto;
+
+import com.example.curebuddy_backend.repository.HealthReportSummary;
+
+import java.time.LocalDateTime;
+
+// Row of GET /api/admin/reports
+public record AdminReportSummaryResponse(
+        String fileName,
+        String fileType,
+        LocalDateTime uploadedAt,
+        String healthRiskPrediction,
+        String downloadLink) {
+
+    public static AdminReportSummaryResponse from(HealthReportSummary report) {
+        return new AdminReportSummaryResponse(
+                report.getFileName(),
+                report.getFileType(),
+                report.getUploadedAt(),
+                report.getHealthRiskPrediction(),
+                "/uploads/" + report.getDownloadPath());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.curebuddy_backend.dto;
+
+import com.example.curebuddy_backend.repository.HealthReportSummary;
+
+import java.time.LocalDateTime;
+
+// Row of the doctor's patient-reports and patient-history lists
+public record DoctorReportSummaryResponse(
+        String id,
+        String patientEmail,
+        String fileName,
+        LocalDateTime uploadedAt,
+        String healthRiskPrediction,
+        String doctorRemarks,
+        String doctorAdvice) {
+
+    public static DoctorReportSummaryResponse from(HealthReportSummary report) {
+        return new DoctorReportSummaryResponse(
+                report.getId(),
+                report.getPatientEmail(),
+                report.getFileName(),
+                report.getUploadedAt(),
+                report.getHealthRiskPrediction(),
+                report.getDoctorRemarks(),
+                report.getDoctorAdvice());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.curebuddy_backend.dto;
+
+/**
+ * A geocoded place: WGS84 coordinates and the name the geocoder resolved it to.
+ */
+public record GeoPoint(double lat, double lon, String displayName) {
+}
@@ -0,0 +1,29 @@
+package com.example.curebuddy_backend.dto;
+
+import com.example.curebuddy_backend.model.Pharmacy;
+
+// Row of GET /api/pharmacy/nearby: the pharmacy plus its distance from the searched point, nearest first
+public record NearbyPharmacyResponse(
+        String id,
+        String name,
+        String address,
+        String phone,
+        String website,
+        double lat,
+        double lon,
+        String city,
+        long distanceMeters) {
+
+    public static NearbyPharmacyResponse from(Pharmacy pharmacy, double distanceMeters) {
+        return new NearbyPharmacyResponse(
+                pharmacy.getId(),
+                pharmacy.getName(),
+                pharmacy.getAddress(),
+                pharmacy.getPhone(),
+                pharmacy.getWebsite(),
+                pharmacy.getLat(),
+                pharmacy.getLon(),
+                pharmacy.getCity(),
+                Math.round(distanceMeters));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.curebuddy_backend.dto;
+
+import com.example.curebuddy_backend.repository.HealthReportSummary;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+// Row of GET /api/patient/my-reports; doctor fields are null until a doctor has responded
+public record PatientReportSummaryResponse(
+        @JsonProperty("_id") String id,
+        String fileName,
+        LocalDateTime uploadedAt,
+        String healthRiskPrediction,
+        String doctorRemarks,
+        String doctorAdvice,
+        LocalDateTime doctorRespondedAt) {
+
+    public static PatientReportSummaryResponse from(HealthReportSummary report) {
+        return new PatientReportSummaryResponse(
+                report.getId(),
+                report.getFileName(),
+                report.getUploadedAt(),
+                report.getHealthRiskPrediction(),
+                report.getDoctorRemarks(),
+                report.getDoctorAdvice(),
+                report.getDoctorRespondedAt());
+    }
+}
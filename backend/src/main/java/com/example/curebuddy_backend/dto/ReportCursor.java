@@ -0,0 +1,32 @@
+package com.example.curebuddy_backend.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor for report listings: the uploadedAt and id of the last row returned.
+ * Legacy reports without an uploadedAt sort after all dated ones; their cursor carries an empty timestamp.
+ */
+public record ReportCursor(LocalDateTime uploadedAt, String id) {
+
+    public String encode() {
+        String raw = (uploadedAt != null ? uploadedAt.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ReportCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0 || separator == raw.length() - 1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            LocalDateTime uploadedAt = separator == 0 ? null : LocalDateTime.parse(raw.substring(0, separator));
+            return new ReportCursor(uploadedAt, raw.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -2,11 +2,13 @@ package com.example.curebuddy_backend.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "bookings")
+@CompoundIndex(name = "patient_booking_date", def = "{'patientEmail': 1, 'bookingDate': -1}")
 public class Booking {
 
     @Id
@@ -1,9 +1,12 @@
 package com.example.curebuddy_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Document(collection = "checkups")
 public class CheckupSchedule {
@@ -11,10 +14,14 @@ public class CheckupSchedule {
     @Id
     private String id;
 
+    @Indexed
     private String patientEmail;
     private String vitalName;  // BP, Sugar, Pulse, Weight, etc.
+    @Indexed
     private LocalDateTime scheduledDateTime;
     private String frequency; // DAILY, WEEKLY, MONTHLY
+    @Indexed
+    private LocalDateTime nextReminderAt; // Next occurrence still to be reminded about; null once a one-off has passed
 
     public String getId() {
         return id;
@@ -56,5 +63,43 @@ public class CheckupSchedule {
         this.frequency = frequency;
     }
 
+    public LocalDateTime getNextReminderAt() {
+        return nextReminderAt;
+    }
+
+    public void setNextReminderAt(LocalDateTime nextReminderAt) {
+        this.nextReminderAt = nextReminderAt;
+    }
+
+    /**
+     * First occurrence of this schedule falling on or after the given day, following its frequency
+     * from scheduledDateTime; without a known frequency the schedule happens once.
+     * @return null if there is no such occurrence.
+     */
+    public LocalDateTime nextOccurrenceOnOrAfter(LocalDate day) {
+        if (scheduledDateTime == null) {
+            return null;
+        }
+        LocalDate first = scheduledDateTime.toLocalDate();
+        if (!first.isBefore(day)) {
+            return scheduledDateTime;
+        }
+        long daysLate = ChronoUnit.DAYS.between(first, day);
+        String repeat = frequency == null ? "" : frequency.trim().toUpperCase();
+        switch (repeat) {
+            case "DAILY":
+                return scheduledDateTime.plusDays(daysLate);
+            case "WEEKLY":
+                return scheduledDateTime.plusWeeks((daysLate + 6) / 7);
+            case "MONTHLY":
+                // Always counted from the original date so a 31st does not drift to the 28th after February
+                long months = ChronoUnit.MONTHS.between(first, day);
+                LocalDateTime next = scheduledDateTime.plusMonths(months);
+                return next.toLocalDate().isBefore(day) ? scheduledDateTime.plusMonths(months + 1) : next;
+            default:
+                return null;
+        }
+    }
+
     // Getters and Setters
 }
@@ -0,0 +1,10 @@
+package com.example.curebuddy_backend.model;
+
+// Lifecycle of the background text extraction for an uploaded HealthReport.
+// Reports saved before extraction became asynchronous have no status and are treated as COMPLETED.
+public enum ExtractionStatus {
+    PENDING,
+    PROCESSING,
+    COMPLETED,
+    FAILED
+}
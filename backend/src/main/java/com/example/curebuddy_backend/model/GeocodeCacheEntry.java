@@ -0,0 +1,26 @@
+package com.example.curebuddy_backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Persistent geocoding result for a normalized place key; found=false records a place Nominatim does not know.
+@Data
+@Document(collection = "geocode_cache")
+public class GeocodeCacheEntry {
+
+    @Id
+    private String key; // normalized "place|country"
+
+    private boolean found;
+    private Double lat;
+    private Double lon;
+    private String displayName;
+    private Instant updatedAt;
+
+    @Indexed(expireAfterSeconds = 0) // Only negative entries set it; coordinates of a real place do not change
+    private Instant expiresAt;
+}
@@ -1,11 +1,23 @@
 package com.example.curebuddy_backend.model;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
 
 @Document(collection = "health_reports")
+@CompoundIndexes({
+        // Doctor feed keyset pagination: newest first, optionally filtered by risk or unanswered state
+        @CompoundIndex(name = "feed_uploaded", def = "{'uploadedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "feed_risk_uploaded", def = "{'healthRiskPrediction': 1, 'uploadedAt': -1, '_id': -1}"),
+        @CompoundIndex(name = "feed_unanswered_uploaded", def = "{'doctorRespondedAt': 1, 'uploadedAt': -1, '_id': -1}"),
+        // A patient's own reports, and the extraction sweep's status + age lookup
+        @CompoundIndex(name = "patient_uploaded", def = "{'patientEmail': 1, 'uploadedAt': -1}"),
+        @CompoundIndex(name = "extraction_status_uploaded", def = "{'extractionStatus': 1, 'uploadedAt': 1}")
+})
 public class HealthReport {
 
     @Id
@@ -14,13 +26,22 @@ public class HealthReport {
     private String patientEmail;
     private String fileName;
     private String fileType;
+    @Indexed
+    private String contentHash; // SHA-256 of the uploaded bytes
+    private String storagePath; // Location under the upload dir, e.g. "ab/cd/<sha256>.pdf"
     private LocalDateTime uploadedAt;
-    private String extractedText;
+    private String extractedText; // Only on reports saved before the text store; see textRef
+    private String textRef; // Id of the compressed text in report_texts
     private String healthRiskPrediction;
     private String doctorRemarks;
     private String doctorAdvice;
     private String doctorEmail;
     private LocalDateTime doctorRespondedAt;
+    private ExtractionStatus extractionStatus;
+    private String extractionError;
+    private LocalDateTime extractionStartedAt; // When the current PROCESSING claim was taken
+    private String extractionClaim; // Token of the worker holding that claim
+    private LocalDateTime extractedAt;
 // (Later after parsing)
 
     public String getId() {
@@ -55,6 +76,27 @@ public class HealthReport {
         this.fileType = fileType;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public void setStoragePath(String storagePath) {
+        this.storagePath = storagePath;
+    }
+
+    // Relative to the /uploads/ resource handler; older reports were stored under their original file name
+    public String getDownloadPath() {
+        return storagePath != null ? storagePath : fileName;
+    }
+
     public LocalDateTime getUploadedAt() {
         return uploadedAt;
     }
@@ -71,6 +113,14 @@ public class HealthReport {
         this.extractedText = extractedText;
     }
 
+    public String getTextRef() {
+        return textRef;
+    }
+
+    public void setTextRef(String textRef) {
+        this.textRef = textRef;
+    }
+
     public String getHealthRiskPrediction() {
         return healthRiskPrediction;
     }
@@ -111,5 +161,52 @@ public class HealthReport {
         this.doctorRespondedAt = doctorRespondedAt;
     }
 
+    public ExtractionStatus getExtractionStatus() {
+        return extractionStatus;
+    }
+
+    public void setExtractionStatus(ExtractionStatus extractionStatus) {
+        this.extractionStatus = extractionStatus;
+    }
+
+    public String getExtractionError() {
+        return extractionError;
+    }
+
+    public void setExtractionError(String extractionError) {
+        this.extractionError = extractionError;
+    }
+
+    public LocalDateTime getExtractionStartedAt() {
+        return extractionStartedAt;
+    }
+
+    public void setExtractionStartedAt(LocalDateTime extractionStartedAt) {
+        this.extractionStartedAt = extractionStartedAt;
+    }
+
+    public String getExtractionClaim() {
+        return extractionClaim;
+    }
+
+    public void setExtractionClaim(String extractionClaim) {
+        this.extractionClaim = extractionClaim;
+    }
+
+    public LocalDateTime getExtractedAt() {
+        return extractedAt;
+    }
+
+    public void setExtractedAt(LocalDateTime extractedAt) {
+        this.extractedAt = extractedAt;
+    }
+
+    // Extraction is finished (or was never asynchronous) once the status is COMPLETED, FAILED or absent.
+    public boolean isExtractionFinished() {
+        return extractionStatus == null
+                || extractionStatus == ExtractionStatus.COMPLETED
+                || extractionStatus == ExtractionStatus.FAILED;
+    }
+
     // Getters and Setters
 }
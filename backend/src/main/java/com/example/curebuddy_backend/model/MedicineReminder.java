@@ -2,11 +2,15 @@ package com.example.curebuddy_backend.model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalTime;
 
 @Data
 @Document(collection = "medicine_reminders")
+// A patient's reminders, already in time-of-day order
+@CompoundIndex(name = "patient_reminder_time", def = "{'patientEmail': 1, 'reminderTime': 1}")
 public class MedicineReminder {
 
     @Id
@@ -14,6 +18,7 @@ public class MedicineReminder {
 
     private String patientEmail;
     private String medicineName;
+    @Indexed
     private LocalTime reminderTime;
 
     public String getId() {
@@ -0,0 +1,6 @@
+package com.example.curebuddy_backend.model;
+
+public enum NotificationChannel {
+    EMAIL,
+    SMS
+}
@@ -0,0 +1,37 @@
+package com.example.curebuddy_backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// An email or SMS waiting in the notification outbox; written by API calls and jobs, delivered by NotificationOutboxService.
+@Data
+@Document(collection = "notification_outbox")
+@CompoundIndex(name = "status_next_attempt", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class OutboxMessage {
+
+    @Id
+    private String id;
+
+    @Indexed(unique = true)
+    private String idempotencyKey; // Same key enqueued twice is stored and delivered once
+
+    private NotificationChannel channel;
+    private String recipient;      // email address or phone number
+    private String subject;        // email only
+    private String body;
+
+    private OutboxStatus status;
+    private int attempts;
+    private Instant nextAttemptAt; // when PENDING: earliest retry; when SENDING: when the claim is considered lost
+    private String claimToken;     // set per claim so a late worker cannot overwrite a newer attempt's result
+    private String lastError;
+    private Instant createdAt;
+
+    @Indexed(expireAfterSeconds = 604800) // Delivered messages are kept for a week
+    private Instant sentAt;
+}
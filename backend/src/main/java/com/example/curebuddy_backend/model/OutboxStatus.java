@@ -0,0 +1,9 @@
+package com.example.curebuddy_backend.model;
+
+// Lifecycle of a queued notification: PENDING -> SENDING -> SENT, back to PENDING on a retryable failure, DEAD once retries run out
+public enum OutboxStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    DEAD
+}
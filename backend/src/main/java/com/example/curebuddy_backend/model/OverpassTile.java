@@ -0,0 +1,25 @@
+package com.example.curebuddy_backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Cached Overpass elements of one amenity class inside one geohash tile.
+@Data
+@Document(collection = "overpass_tiles")
+public class OverpassTile {
+
+    @Id
+    private String key; // "<amenity class>:<geohash>"
+
+    // Elements as Overpass JSON: OSM tag keys may contain dots, which Mongo field names cannot
+    private String elementsJson;
+
+    private Instant fetchedAt;
+
+    @Indexed(expireAfterSeconds = 0)
+    private Instant expiresAt;
+}
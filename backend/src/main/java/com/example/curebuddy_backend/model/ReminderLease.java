@@ -0,0 +1,20 @@
+package com.example.curebuddy_backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Time-limited claim of one reminder partition by one backend node; a lease past expiresAt is free to take over.
+@Data
+@Document(collection = "reminder_leases")
+public class ReminderLease {
+
+    @Id
+    private Integer partition;
+
+    private String owner;      // node id of the holder
+    private Instant expiresAt;
+    private Instant dispatchedThrough; // last minute the holder's medicine reminder wheel had dispatched for it
+}
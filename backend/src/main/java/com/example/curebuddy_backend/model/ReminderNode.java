@@ -0,0 +1,20 @@
+package com.example.curebuddy_backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Heartbeat of a running backend node, used to split reminder partitions evenly between live nodes.
+@Data
+@Document(collection = "reminder_nodes")
+public class ReminderNode {
+
+    @Id
+    private String id;
+
+    @Indexed(expireAfterSeconds = 3600) // Nodes gone for an hour are dropped by Mongo
+    private Instant lastSeen;
+}
@@ -0,0 +1,22 @@
+package com.example.curebuddy_backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Deflate-compressed text extracted from an uploaded report, kept out of health_reports so list queries stay small.
+// Keyed by the upload's content hash, so identical files share one entry.
+@Data
+@Document(collection = "report_texts")
+public class ReportText {
+
+    @Id
+    private String id;
+
+    private byte[] content;   // deflate-compressed UTF-8 text
+    private int rawLength;    // uncompressed size in bytes
+    private String codec;     // "deflate"
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,21 @@
+package com.example.curebuddy_backend.model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Every token of the user issued at or before revokedAt is rejected in stateless JWT mode.
+@Data
+@Document(collection = "token_revocations")
+public class TokenRevocation {
+
+    @Id
+    private String email; // Lowercased
+
+    // Tokens are valid for 10 hours, so after that every token the entry could reject has expired anyway
+    @Indexed(expireAfterSeconds = 36000)
+    private Instant revokedAt;
+}
@@ -6,7 +6,11 @@ import java.util.List;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class OverpassResponse {
     private List<OverpassElement> elements;
+    // Set when the query hit its timeout or memory limit; elements are then incomplete despite the 200
+    private String remark;
 
     public List<OverpassElement> getElements() { return elements; }
     public void setElements(List<OverpassElement> elements) { this.elements = elements; }
+    public String getRemark() { return remark; }
+    public void setRemark(String remark) { this.remark = remark; }
 }
\ No newline at end of file
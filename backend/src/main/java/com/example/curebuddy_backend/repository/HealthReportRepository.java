@@ -1,9 +1,27 @@
 package com.example.curebuddy_backend.repository;
 
+import com.example.curebuddy_backend.model.ExtractionStatus;
 import com.example.curebuddy_backend.model.HealthReport;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
 import java.util.List;
+import java.util.Optional;
+
+public interface HealthReportRepository extends MongoRepository<HealthReport, String>, HealthReportRepositoryCustom {
+
+    String SUMMARY_FIELDS = "{ 'patientEmail': 1, 'fileName': 1, 'fileType': 1, 'storagePath': 1, 'uploadedAt': 1, "
+            + "'healthRiskPrediction': 1, 'doctorEmail': 1, 'doctorRemarks': 1, 'doctorAdvice': 1, 'doctorRespondedAt': 1 }";
 
-public interface HealthReportRepository extends MongoRepository<HealthReport, String> {
     List<HealthReport> findByPatientEmail(String email);
+
+    // Listing queries: Mongo returns only the summary fields, never the (legacy inline) report text
+    @Query(value = "{ 'patientEmail': ?0 }", fields = SUMMARY_FIELDS)
+    List<HealthReportSummary> findSummariesByPatientEmail(String email);
+
+    @Query(value = "{}", fields = SUMMARY_FIELDS)
+    List<HealthReportSummary> findAllSummaries();
+
+    // An earlier upload of the same bytes whose text can be reused instead of running PDFBox again
+    Optional<HealthReport> findFirstByContentHashAndExtractionStatus(String contentHash, ExtractionStatus status);
 }
@@ -0,0 +1,18 @@
+package com.example.curebuddy_backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface HealthReportRepositoryCustom {
+
+    /**
+     * Keyset page of report summaries, newest first (uploadedAt desc, id desc).
+     * @param afterUploadedAt uploadedAt of the last row of the previous page (null if that row had none).
+     * @param afterId id of the last row of the previous page, or null for the first page.
+     * @param risk only reports with this healthRiskPrediction, or null for all.
+     * @param unansweredOnly only reports a doctor has not responded to yet.
+     * @param limit maximum number of rows to return; callers always bound it.
+     */
+    List<HealthReportSummary> findSummaryPage(LocalDateTime afterUploadedAt, String afterId,
+                                              String risk, boolean unansweredOnly, int limit);
+}
@@ -0,0 +1,64 @@
+package com.example.curebuddy_backend.repository;
+
+import com.example.curebuddy_backend.model.HealthReport;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Keyset pagination backed by the uploadedAt/_id compound indexes declared on HealthReport
+class HealthReportRepositoryImpl implements HealthReportRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    HealthReportRepositoryImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<HealthReportSummary> findSummaryPage(LocalDateTime afterUploadedAt, String afterId,
+                                                     String risk, boolean unansweredOnly, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (risk != null) {
+            filters.add(Criteria.where("healthRiskPrediction").is(risk));
+        }
+        if (unansweredOnly) {
+            filters.add(Criteria.where("doctorRespondedAt").is(null));
+        }
+        if (afterId != null) {
+            Object lastId = ObjectId.isValid(afterId) ? new ObjectId(afterId) : afterId;
+            // Reports without uploadedAt sort after every dated one in descending order, and $lt never matches them
+            if (afterUploadedAt != null) {
+                filters.add(new Criteria().orOperator(
+                        Criteria.where("uploadedAt").lt(afterUploadedAt),
+                        new Criteria().andOperator(
+                                Criteria.where("uploadedAt").is(afterUploadedAt),
+                                Criteria.where("_id").lt(lastId)),
+                        Criteria.where("uploadedAt").is(null)));
+            } else {
+                filters.add(new Criteria().andOperator(
+                        Criteria.where("uploadedAt").is(null),
+                        Criteria.where("_id").lt(lastId)));
+            }
+        }
+
+        Query query = new Query();
+        if (!filters.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(filters));
+        }
+        query.fields().include("patientEmail", "fileName", "fileType", "storagePath", "uploadedAt",
+                "healthRiskPrediction", "doctorEmail", "doctorRemarks", "doctorAdvice", "doctorRespondedAt");
+        query.with(Sort.by(Sort.Order.desc("uploadedAt"), Sort.Order.desc("_id")));
+        query.limit(limit);
+
+        return mongoTemplate.query(HealthReport.class)
+                .as(HealthReportSummary.class)
+                .matching(query)
+                .all();
+    }
+}
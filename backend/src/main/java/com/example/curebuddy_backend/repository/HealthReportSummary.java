@@ -0,0 +1,23 @@
+package com.example.curebuddy_backend.repository;
+
+import java.time.LocalDateTime;
+
+// Closed projection of HealthReport used by the report listing endpoints; never carries report text.
+public interface HealthReportSummary {
+    String getId();
+    String getPatientEmail();
+    String getFileName();
+    String getFileType();
+    String getStoragePath();
+    LocalDateTime getUploadedAt();
+    String getHealthRiskPrediction();
+    String getDoctorEmail();
+    String getDoctorRemarks();
+    String getDoctorAdvice();
+    LocalDateTime getDoctorRespondedAt();
+
+    // Relative to the /uploads/ resource handler; older reports were stored under their original file name
+    default String getDownloadPath() {
+        return getStoragePath() != null ? getStoragePath() : getFileName();
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.curebuddy_backend.repository;
 
 import com.example.curebuddy_backend.model.MedicineReminder;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.time.LocalTime;
@@ -8,4 +12,10 @@ import java.util.List;
 
 public interface MedicineReminderRepository extends MongoRepository<MedicineReminder, String> {
     List<MedicineReminder> findByReminderTime(LocalTime time);
+
+    List<MedicineReminder> findByReminderTimeBetween(Range<LocalTime> range);
+
+    List<MedicineReminder> findByPatientEmail(String email, Sort sort);
+
+    Slice<MedicineReminder> findByPatientEmail(String email, Pageable pageable);
 }
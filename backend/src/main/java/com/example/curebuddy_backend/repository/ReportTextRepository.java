@@ -0,0 +1,7 @@
+package com.example.curebuddy_backend.repository;
+
+import com.example.curebuddy_backend.model.ReportText;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface ReportTextRepository extends MongoRepository<ReportText, String> {
+}
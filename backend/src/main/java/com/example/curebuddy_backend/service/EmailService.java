@@ -1,28 +1,74 @@
 package com.example.curebuddy_backend.service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.MessagingException; // For Jakarta Mail (Spring Boot 3+)
 // import javax.mail.MessagingException; // For javax.mail (Spring Boot 2.x)
+import jakarta.mail.Transport;
 import jakarta.mail.internet.MimeMessage;
 // import javax.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value; // To read from application.properties
 import org.springframework.core.io.FileSystemResource;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class EmailService {
 
+    private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
+
     @Autowired
     private JavaMailSender mailSender;
 
     @Value("${spring.mail.username}") // Inject the configured username
     private String fromEmailAddress;
 
+    @Value("${mail.batch.connections:4}")
+    private int batchConnections;
+
+    @Value("${mail.batch.messages-per-connection:100}")
+    private int messagesPerConnection;
+
+    // Connected SMTP transports kept open between batches; never more than batchConnections exist at once
+    private final ConcurrentLinkedDeque<Transport> idleTransports = new ConcurrentLinkedDeque<>();
+    private ExecutorService batchExecutor;
+
+    /**
+     * Outcome of one message of a batch, in the same position as the message in the input list.
+     */
+    public record SendResult(SimpleMailMessage message, boolean sent, String error) {
+    }
+
+    @PostConstruct
+    void startBatchExecutor() {
+        AtomicInteger threadCount = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(Math.max(1, batchConnections), runnable -> {
+            Thread thread = new Thread(runnable, "smtp-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
     /**
      * Sends a simple text email.
      * @param to Recipient's email address.
@@ -93,4 +139,156 @@ public class EmailService {
             throw new RuntimeException("Unexpected error preparing email with attachment: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Sends many simple emails over pooled SMTP connections: the list is split into chunks of
+     * mail.batch.messages-per-connection, each chunk goes out over one already-authenticated connection,
+     * and up to mail.batch.connections chunks are sent in parallel.
+     * A failed message does not stop the rest of the batch.
+     * @return one result per message, in input order.
+     */
+    public List<SendResult> sendBatch(List<SimpleMailMessage> messages) {
+        List<Future<List<SendResult>>> chunks = new ArrayList<>();
+        int chunkSize = Math.max(1, messagesPerConnection);
+        for (int start = 0; start < messages.size(); start += chunkSize) {
+            List<SimpleMailMessage> chunk = messages.subList(start, Math.min(messages.size(), start + chunkSize));
+            chunks.add(batchExecutor.submit(() -> sendChunk(chunk)));
+        }
+
+        List<SendResult> results = new ArrayList<>(messages.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            try {
+                results.addAll(chunks.get(i).get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failRemaining(messages, results, "Interrupted");
+                return results;
+            } catch (ExecutionException e) {
+                int start = i * chunkSize;
+                for (SimpleMailMessage message : messages.subList(start, Math.min(messages.size(), start + chunkSize))) {
+                    results.add(new SendResult(message, false, e.getCause().getMessage()));
+                }
+            }
+        }
+        return results;
+    }
+
+    private void failRemaining(List<SimpleMailMessage> messages, List<SendResult> results, String error) {
+        for (SimpleMailMessage message : messages.subList(results.size(), messages.size())) {
+            results.add(new SendResult(message, false, error));
+        }
+    }
+
+    private List<SendResult> sendChunk(List<SimpleMailMessage> chunk) {
+        if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+            return sendChunkWithoutPool(chunk);
+        }
+
+        List<SendResult> results = new ArrayList<>(chunk.size());
+        Transport transport = null;
+        try {
+            transport = borrowTransport(sender);
+            for (SimpleMailMessage message : chunk) {
+                try {
+                    MimeMessage mimeMessage = toMimeMessage(sender, message);
+                    transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
+                    results.add(new SendResult(message, true, null));
+                } catch (MessagingException e) {
+                    results.add(new SendResult(message, false, e.getMessage()));
+                    if (!transport.isConnected()) {
+                        // The server dropped us mid-chunk; carry on with a fresh connection
+                        closeQuietly(transport);
+                        transport = borrowTransport(sender);
+                    }
+                }
+            }
+        } catch (MessagingException e) {
+            logger.error("Could not open an SMTP connection for a batch of {} emails: {}", chunk.size(), e.getMessage());
+            for (SimpleMailMessage message : chunk.subList(results.size(), chunk.size())) {
+                results.add(new SendResult(message, false, e.getMessage()));
+            }
+            transport = null;
+        } finally {
+            if (transport != null) {
+                idleTransports.offerFirst(transport);
+            }
+        }
+        return results;
+    }
+
+    // Any other JavaMailSender still gets one send call per chunk, which it may or may not pipeline
+    private List<SendResult> sendChunkWithoutPool(List<SimpleMailMessage> chunk) {
+        List<SendResult> results = new ArrayList<>(chunk.size());
+        SimpleMailMessage[] copies = new SimpleMailMessage[chunk.size()];
+        for (int i = 0; i < copies.length; i++) {
+            copies[i] = new SimpleMailMessage(chunk.get(i));
+            if (copies[i].getFrom() == null) {
+                copies[i].setFrom(fromEmailAddress);
+            }
+        }
+        Map<Object, Exception> failures = Map.of();
+        try {
+            mailSender.send(copies);
+        } catch (MailSendException e) {
+            failures = e.getFailedMessages();
+        } catch (Exception e) {
+            for (SimpleMailMessage message : chunk) {
+                results.add(new SendResult(message, false, e.getMessage()));
+            }
+            return results;
+        }
+        for (int i = 0; i < copies.length; i++) {
+            Exception failure = failures.get(copies[i]);
+            results.add(new SendResult(chunk.get(i), failure == null, failure == null ? null : failure.getMessage()));
+        }
+        return results;
+    }
+
+    private Transport borrowTransport(JavaMailSenderImpl sender) throws MessagingException {
+        Transport transport;
+        while ((transport = idleTransports.pollFirst()) != null) {
+            // isConnected() sends a NOOP, so connections the server timed out are noticed here
+            if (transport.isConnected()) {
+                return transport;
+            }
+            closeQuietly(transport);
+        }
+        transport = sender.getSession().getTransport(sender.getProtocol() != null ? sender.getProtocol() : "smtp");
+        String username = sender.getUsername() == null || sender.getUsername().isEmpty() ? null : sender.getUsername();
+        String password = sender.getPassword() == null || sender.getPassword().isEmpty() ? null : sender.getPassword();
+        transport.connect(sender.getHost(), sender.getPort(), username, password);
+        return transport;
+    }
+
+    private MimeMessage toMimeMessage(JavaMailSenderImpl sender, SimpleMailMessage message) throws MessagingException {
+        MimeMessage mimeMessage = sender.createMimeMessage();
+        SimpleMailMessage copy = new SimpleMailMessage(message);
+        if (copy.getFrom() == null) {
+            copy.setFrom(fromEmailAddress);
+        }
+        copy.copyTo(new MimeMailMessage(mimeMessage));
+        if (mimeMessage.getSentDate() == null) {
+            mimeMessage.setSentDate(new Date());
+        }
+        // Transport.sendMessage, unlike Transport.send, does not finalize the headers itself
+        mimeMessage.saveChanges();
+        return mimeMessage;
+    }
+
+    private void closeQuietly(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdownBatchSending() {
+        batchExecutor.shutdown();
+        Transport transport;
+        while ((transport = idleTransports.pollFirst()) != null) {
+            closeQuietly(transport);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.curebuddy_backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Offline stand-in for Twilio (twilio.transport=fake): accepts every message after a configurable delay
+@Component
+@ConditionalOnProperty(name = "twilio.transport", havingValue = "fake")
+public class FakeSmsTransport implements SmsTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(FakeSmsTransport.class);
+
+    private final AtomicLong sent = new AtomicLong();
+
+    @Value("${twilio.fake.latency-ms:100}")
+    private long latencyMs;
+
+    @Override
+    public String send(String to, String from, String body) throws InterruptedException {
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+        long count = sent.incrementAndGet();
+        logger.debug("[Fake SMS #{}] {} -> {}: {}", count, from, to, body);
+        return "SMfake" + count;
+    }
+
+    public long getSentCount() {
+        return sent.get();
+    }
+}
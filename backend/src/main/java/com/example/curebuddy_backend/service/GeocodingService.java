@@ -0,0 +1,281 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.dto.GeoPoint;
+import com.example.curebuddy_backend.model.GeocodeCacheEntry;
+import com.example.curebuddy_backend.model.nominatim.NominatimResult;
+import com.example.curebuddy_backend.util.SingleFlight;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared Nominatim geocoder with two cache tiers: an in-memory LRU in front of the geocode_cache collection,
+ * keyed by the normalized place and country. Places Nominatim does not know are cached too, for
+ * geocode.negative-ttl-ms, so a mistyped city cannot keep hitting the API. Errors are never cached.
+ * Calls that do reach Nominatim go through the shared RestTemplate, whose per-host rate limit holds them to
+ * Nominatim's usage policy of one request per second.
+ * Concurrent misses for the same key share one lookup. Major Indian cities are preloaded from a bundled file at startup.
+ */
+@Service
+public class GeocodingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeocodingService.class);
+    private static final String APP_USER_AGENT = "CureBuddyApp/1.0 (BackendGeocoding; https://github.com/Jaikumar96/Cure-Buddy---Smart-Health-Monitoring-App)";
+    private static final String DEFAULT_COUNTRY = "India";
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final MongoTemplate mongoTemplate;
+    private final ResourceLoader resourceLoader;
+    private final Cache<String, Optional<GeoPoint>> cache;
+    private final SingleFlight<String, Optional<GeoPoint>> lookups;
+    private final Duration negativeTtl;
+
+    @Value("${nominatim.api.url:https://nominatim.openstreetmap.org/search}")
+    private String nominatimUrl;
+
+    @Value("${geocode.seed-file:classpath:geo/india_places.csv}")
+    private String seedFile;
+
+    public GeocodingService(RestTemplate restTemplate,
+                            ObjectMapper objectMapper,
+                            MongoTemplate mongoTemplate,
+                            ResourceLoader resourceLoader,
+                            MeterRegistry meterRegistry,
+                            @Value("${geocode.cache.max-size:20000}") long maxSize,
+                            @Value("${geocode.cache.ttl-ms:2592000000}") long ttlMs,
+                            @Value("${geocode.negative-ttl-ms:86400000}") long negativeTtlMs,
+                            @Value("${singleflight.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.mongoTemplate = mongoTemplate;
+        this.resourceLoader = resourceLoader;
+        this.negativeTtl = Duration.ofMillis(negativeTtlMs);
+        long positiveNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        long negativeNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Optional<GeoPoint>>() {
+                    @Override
+                    public long expireAfterCreate(String key, Optional<GeoPoint> value, long currentTime) {
+                        return value.isPresent() ? positiveNanos : negativeNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Optional<GeoPoint> value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Optional<GeoPoint> value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "geocode");
+        this.lookups = new SingleFlight<>("geocode", meterRegistry, waitTimeoutMs);
+    }
+
+    public Optional<GeoPoint> geocode(String place) {
+        return geocode(place, DEFAULT_COUNTRY);
+    }
+
+    /**
+     * @return the coordinates of the place, or empty if it is unknown or Nominatim could not be reached.
+     */
+    public Optional<GeoPoint> geocode(String place, String country) {
+        String key = keyOf(place, country);
+        if (key == null) {
+            return Optional.empty();
+        }
+        Optional<GeoPoint> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // A city screen opened by many users at once misses together; only one of them goes upstream
+        Optional<GeoPoint> result = lookups.execute(key, () -> load(key, place.trim(), country), () -> null);
+        return result != null ? result : Optional.empty(); // Transient failure: the next request tries again
+    }
+
+    private Optional<GeoPoint> load(String key, String place, String country) {
+        // The previous flight for this key may have just filled the cache
+        Optional<GeoPoint> result = cache.getIfPresent(key);
+        if (result != null) {
+            return result;
+        }
+        result = loadPersisted(key);
+        if (result == null) {
+            result = lookup(place, country);
+            if (result == null) {
+                return null;
+            }
+            persist(key, result);
+        }
+        cache.put(key, result);
+        return result;
+    }
+
+    private Optional<GeoPoint> loadPersisted(String key) {
+        try {
+            GeocodeCacheEntry entry = mongoTemplate.findById(key, GeocodeCacheEntry.class);
+            if (entry == null || (entry.getExpiresAt() != null && entry.getExpiresAt().isBefore(Instant.now()))) {
+                return null;
+            }
+            return entry.isFound() && entry.getLat() != null && entry.getLon() != null
+                    ? Optional.of(new GeoPoint(entry.getLat(), entry.getLon(), entry.getDisplayName()))
+                    : Optional.empty();
+        } catch (Exception e) {
+            logger.warn("Could not read geocode cache for '{}': {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    private void persist(String key, Optional<GeoPoint> result) {
+        GeocodeCacheEntry entry = new GeocodeCacheEntry();
+        entry.setKey(key);
+        entry.setFound(result.isPresent());
+        result.ifPresent(point -> {
+            entry.setLat(point.lat());
+            entry.setLon(point.lon());
+            entry.setDisplayName(point.displayName());
+        });
+        entry.setUpdatedAt(Instant.now());
+        if (result.isEmpty()) {
+            entry.setExpiresAt(entry.getUpdatedAt().plus(negativeTtl));
+        }
+        try {
+            mongoTemplate.save(entry);
+        } catch (Exception e) {
+            logger.warn("Could not persist geocode result for '{}': {}", key, e.getMessage());
+        }
+    }
+
+    // Empty if Nominatim knows no such place, null if the call itself failed
+    private Optional<GeoPoint> lookup(String place, String country) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("User-Agent", APP_USER_AGENT);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+        String url = UriComponentsBuilder.fromHttpUrl(nominatimUrl)
+                .queryParam("city", place)
+                .queryParam("country", country)
+                .queryParam("format", "json")
+                .queryParam("limit", 1)
+                .toUriString();
+        logger.info("Querying Nominatim API with URL: {}", url);
+
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+            String body = response.getBody();
+            if (!response.getStatusCode().is2xxSuccessful() || body == null) {
+                logger.error("Error from Nominatim API for '{}': Status {}, Body: {}", place, response.getStatusCode(), body);
+                return null;
+            }
+            List<NominatimResult> results = body.isBlank()
+                    ? List.of()
+                    : objectMapper.readValue(body, new TypeReference<List<NominatimResult>>() {});
+            if (results.isEmpty()) {
+                logger.warn("Nominatim does not know '{}', {}", place, country);
+                return Optional.empty();
+            }
+            NominatimResult first = results.get(0);
+            GeoPoint point = new GeoPoint(Double.parseDouble(first.getLat()), Double.parseDouble(first.getLon()), first.getDisplay_name());
+            logger.info("Geocoded '{}' to lat: {}, lon: {} ({})", place, point.lat(), point.lon(), point.displayName());
+            return Optional.of(point);
+        } catch (NumberFormatException e) {
+            logger.error("Could not parse lat/lon from Nominatim result for '{}'", place, e);
+            return Optional.empty();
+        } catch (Exception e) {
+            logger.error("Exception while calling Nominatim API for '{}': {}", place, e.getMessage());
+            return null;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        Resource resource = resourceLoader.getResource(seedFile);
+        if (!resource.exists()) {
+            logger.warn("Geocode seed file {} not found, skipping preload", seedFile);
+            return;
+        }
+        int loaded = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                // place,state,lat,lon
+                String[] fields = line.split(",");
+                if (fields.length < 4) {
+                    continue;
+                }
+                GeoPoint point = new GeoPoint(Double.parseDouble(fields[2].trim()), Double.parseDouble(fields[3].trim()),
+                        fields[0].trim() + ", " + fields[1].trim() + ", " + DEFAULT_COUNTRY);
+                cache.put(keyOf(fields[0], DEFAULT_COUNTRY), Optional.of(point));
+                loaded++;
+            }
+            logger.info("Preloaded {} places into the geocoding cache", loaded);
+        } catch (Exception e) {
+            logger.warn("Could not preload geocode seed file {}: {}", seedFile, e.getMessage());
+        }
+    }
+
+    private static String keyOf(String place, String country) {
+        if (place == null || place.isBlank()) {
+            return null;
+        }
+        return normalizePlace(place) + "|" + normalizePlace(country);
+    }
+
+    // Case, surrounding and repeated whitespace do not make a different place; also keys the locator services' lookups
+    static String normalizePlace(String place) {
+        return place == null ? "" : place.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    // "navi mumbai" -> "Navi Mumbai": one spelling per normalized place for labels, whoever searched first; null if blank
+    static String displayPlace(String normalizedPlace) {
+        if (normalizedPlace == null || normalizedPlace.isEmpty()) {
+            return null;
+        }
+        StringBuilder display = new StringBuilder(normalizedPlace.length());
+        boolean wordStart = true;
+        for (char c : normalizedPlace.toCharArray()) {
+            display.append(wordStart ? Character.toUpperCase(c) : c);
+            wordStart = c == ' ' || c == '-';
+        }
+        return display.toString();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.curebuddy_backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Principals of recently verified JWTs, keyed by the SHA-256 of the token so raw tokens are never held in memory.
+ * An entry lives until the token's own expiry, capped at security.jwt.cache.max-ttl-ms so a changed or deleted
+ * account is picked up again within that window even if nothing evicts it explicitly.
+ */
+@Component
+public class JwtAuthenticationCache {
+
+    private record Entry(UserDetails principal, long expiresAtMillis) {
+    }
+
+    private final Cache<String, Entry> cache;
+
+    public JwtAuthenticationCache(@Value("${security.jwt.cache.max-size:10000}") long maxSize,
+                                  @Value("${security.jwt.cache.max-ttl-ms:300000}") long maxTtlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String key, Entry entry, long currentTime) {
+                        long untilExpiry = entry.expiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, Math.min(untilExpiry, maxTtlMs)));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, entry, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public UserDetails get(String token) {
+        Entry entry = cache.getIfPresent(keyOf(token));
+        // Caffeine evicts lazily; never hand out a principal past its token's exp
+        return entry != null && entry.expiresAtMillis() > System.currentTimeMillis() ? entry.principal() : null;
+    }
+
+    public void put(String token, UserDetails principal, long expiresAtMillis) {
+        cache.put(keyOf(token), new Entry(principal, expiresAtMillis));
+    }
+
+    // Drops every cached token of the user, e.g. after a profile change or deletion
+    public void evictUser(String email) {
+        cache.asMap().values().removeIf(entry -> entry.principal().getUsername().equalsIgnoreCase(email));
+    }
+
+    private static String keyOf(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -1,28 +1,49 @@
 package com.example.curebuddy_backend.service;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.*;
 import jakarta.servlet.http.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
+/**
+ * Authenticates Bearer tokens. A token seen before is resolved from JwtAuthenticationCache without
+ * re-verifying its signature or loading the user; a new one is parsed once and the user loaded once.
+ * With security.jwt.stateless=true the principal is built from the verified subject and role claims instead,
+ * so Mongo is off the authentication path entirely; deleted users, password changes and role or verification
+ * changes are then enforced through TokenRevocationService.
+ * Invalid or expired tokens leave the request unauthenticated, so Spring Security answers them with its usual 401/403.
+ */
 @Component
 public class JwtFilter extends OncePerRequestFilter {
 
     @Autowired
     JwtService jwtService;
 
-
+    @Autowired
+    JwtAuthenticationCache authenticationCache;
 
     @Autowired
     UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    TokenRevocationService revocationService;
+
+    @Value("${security.jwt.stateless:false}")
+    boolean stateless;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
@@ -30,18 +51,12 @@ public class JwtFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         String authHeader = request.getHeader("Authorization");
-        String token = null;
-        String email = null;
 
-        if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            token = authHeader.substring(7);
-            email = jwtService.extractEmail(token);
-        }
-
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+        if (authHeader != null && authHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolve(authHeader.substring(7));
 
-            if (jwtService.validateToken(token)) {
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
@@ -53,4 +68,39 @@ public class JwtFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolve(String token) {
+        UserDetails cached = authenticationCache.get(token);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims;
+        try {
+            claims = jwtService.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+        if (claims.getSubject() == null || claims.getExpiration() == null) {
+            return null;
+        }
+
+        UserDetails userDetails;
+        if (stateless) {
+            String role = claims.get("role", String.class);
+            if (role == null || revocationService.isRevoked(claims.getSubject(), claims.getIssuedAt())) {
+                return null;
+            }
+            userDetails = new org.springframework.security.core.userdetails.User(
+                    claims.getSubject(), "", List.of(new SimpleGrantedAuthority(role)));
+        } else {
+            try {
+                userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            } catch (UsernameNotFoundException e) {
+                return null;
+            }
+        }
+        authenticationCache.put(token, userDetails, claims.getExpiration().getTime());
+        return userDetails;
+    }
 }
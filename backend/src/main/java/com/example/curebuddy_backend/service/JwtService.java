@@ -16,15 +16,20 @@ import java.util.Map;
 @Service
 public class JwtService {
 
+    public static final long TOKEN_VALIDITY_MS = 1000L * 60 * 60 * 10; // 10 hours
+
     @Value("${jwt.secret}")
     private String base64Secret; // Store the Base64 encoded string
 
     private Key signingKey; // Use java.security.Key
 
+    private JwtParser parser; // Immutable and thread-safe, so built once and shared by every request
+
     @PostConstruct // This method will be called after the bean is initialized
     public void init() {
         byte[] keyBytes = Base64.getDecoder().decode(base64Secret);
         this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
     }
 
     public String generateToken(String email, String role) {
@@ -35,30 +40,30 @@ public class JwtService {
                 .setClaims(claims)
                 .setSubject(email)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours
+                .setExpiration(new Date(System.currentTimeMillis() + TOKEN_VALIDITY_MS))
                 .signWith(signingKey, SignatureAlgorithm.HS256) // Use the Key object
                 .compact();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder() // Use parserBuilder for modern jjwt
-                .setSigningKey(signingKey) // Use the Key object
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verifies the signature and expiry and returns the claims, in one parse.
+     * @throws JwtException if the token is malformed, tampered with or expired.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 
     public String extractEmail(String token) {
-        return extractAllClaims(token).getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public String extractRole(String token) {
-        return (String) extractAllClaims(token).get("role");
+        return (String) parseClaims(token).get("role");
     }
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder().setSigningKey(signingKey).build().parseClaimsJws(token);
+            parseClaims(token);
             return true;
         } catch (JwtException | IllegalArgumentException e) {
             // Log the exception e.g., log.warn("Invalid JWT token: {}", e.getMessage());
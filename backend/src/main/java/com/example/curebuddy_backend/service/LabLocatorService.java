@@ -1,174 +1,94 @@
 package com.example.curebuddy_backend.service;
 
+import com.example.curebuddy_backend.dto.GeoPoint;
 import com.example.curebuddy_backend.model.LabResult;
-import com.example.curebuddy_backend.model.nominatim.NominatimResult;
 import com.example.curebuddy_backend.model.overpass.OverpassElement;
-import com.example.curebuddy_backend.model.overpass.OverpassResponse;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.example.curebuddy_backend.util.GeoUtils;
+import com.example.curebuddy_backend.util.SingleFlight;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.*;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 @Service
 public class LabLocatorService {
 
     private static final Logger logger = LoggerFactory.getLogger(LabLocatorService.class);
-    private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
-    private static final String OVERPASS_API_URL = "https://overpass-api.de/api/interpreter";
-    private static final String NOMINATIM_API_URL = "https://nominatim.openstreetmap.org/search";
 
-    // IMPORTANT: Use a descriptive User-Agent with valid contact info for your project
-    private static final String APP_USER_AGENT = "CureBuddyApp/1.0 (LabLookup; https://github.com/Jaikumar96/Cure-Buddy---Smart-Health-Monitoring-App)";
 
 
-    public LabLocatorService(RestTemplate restTemplate, ObjectMapper objectMapper) {
-        this.restTemplate = restTemplate;
+    private final GeocodingService geocodingService;
+    private final OverpassTileCache overpassTiles;
+    private final SingleFlight<String, List<LabResult>> locationLookups;
+
+    public LabLocatorService(ObjectMapper objectMapper, GeocodingService geocodingService, OverpassTileCache overpassTiles,
+                             MeterRegistry meterRegistry,
+                             @Value("${singleflight.wait-timeout-ms:30000}") long waitTimeoutMs) {
         this.objectMapper = objectMapper;
+        this.geocodingService = geocodingService;
+        this.overpassTiles = overpassTiles;
+        this.locationLookups = new SingleFlight<>("lab-location", meterRegistry, waitTimeoutMs);
     }
 
+    /**
+     * Concurrent searches for the same state and district share one lookup and get the same, unmodifiable list,
+     * labelled with one spelling of each place per normalized name.
+     */
     public List<LabResult> findLabsByLocation(String state, String district) {
+        String normalizedState = GeocodingService.normalizePlace(state);
+        String normalizedDistrict = GeocodingService.normalizePlace(district);
+        return locationLookups.execute(normalizedState + "|" + normalizedDistrict,
+                () -> lookupLabs(GeocodingService.displayPlace(normalizedState), GeocodingService.displayPlace(normalizedDistrict)),
+                Collections::emptyList);
+    }
+
+    private List<LabResult> lookupLabs(String state, String district) {
         // For Nominatim, we'll try to geocode the district first, then fall back to state if district is not provided or fails.
         String locationToGeocode = district != null && !district.isEmpty() ? district : state;
         String country = "India"; // Assuming labs are in India
 
         logger.info("Attempting to find labs. Geocoding location: '{}', State: '{}', Country: '{}'", locationToGeocode, state, country);
 
-        List<NominatimResult> geoResultsList = geocodeOsmLocation(locationToGeocode, state, country);
+        // The state is deliberately not sent to Nominatim: it made lookups such as "Chennai" fail
+        Optional<GeoPoint> geoPoint = geocodingService.geocode(locationToGeocode, country);
 
-        if (geoResultsList == null || geoResultsList.isEmpty()) {
+        if (geoPoint.isEmpty()) {
             logger.warn("Could not geocode location: '{}', State: '{}'. No coordinates found.", locationToGeocode, state);
             return Collections.emptyList();
         }
 
-        NominatimResult firstGeoResult = geoResultsList.get(0); // Take the first, most relevant result
-        double lat;
-        double lon;
-        try {
-            lat = Double.parseDouble(firstGeoResult.getLat());
-            lon = Double.parseDouble(firstGeoResult.getLon());
-        } catch (NumberFormatException e) {
-            logger.error("Could not parse lat/lon from Nominatim result for {}: lat='{}', lon='{}'",
-                    firstGeoResult.getDisplay_name(), firstGeoResult.getLat(), firstGeoResult.getLon(), e);
-            return Collections.emptyList();
-        }
+        double lat = geoPoint.get().lat();
+        double lon = geoPoint.get().lon();
 
         logger.info("Geocoded '{}' (from query for state '{}', district '{}') to lat: {}, lon: {}. DisplayName: {}",
-                locationToGeocode, state, district, lat, lon, firstGeoResult.getDisplay_name());
+                locationToGeocode, state, district, lat, lon, geoPoint.get().displayName());
 
-        // Query Overpass API for labs around these coordinates
         int searchRadius = 15000; // 15km radius, adjust if needed
 
-        String overpassQuery = String.format(
-                "[out:json][timeout:30];" +
-                        "(" +
-                        "  node[amenity~\"^(hospital|clinic|doctors)$\"](around:%d,%.6f,%.6f);" +
-                        "  way[amenity~\"^(hospital|clinic|doctors)$\"](around:%d,%.6f,%.6f);" +
-                        "  relation[amenity~\"^(hospital|clinic|doctors)$\"](around:%d,%.6f,%.6f);" +
-                        "  node[amenity=laboratory](around:%d,%.6f,%.6f);" +
-                        "  way[amenity=laboratory](around:%d,%.6f,%.6f);" +
-                        "  relation[amenity=laboratory](around:%d,%.6f,%.6f);" +
-                        ");" +
-                        "out center;",
-                searchRadius, lat, lon, searchRadius, lat, lon, searchRadius, lat, lon,
-                searchRadius, lat, lon, searchRadius, lat, lon, searchRadius, lat, lon
-        );
-
-        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(OVERPASS_API_URL)
-                .queryParam("data", "{overpassQueryData}"); // Placeholder for URI encoding
-        String fullUrl = uriBuilder.buildAndExpand(Map.of("overpassQueryData", overpassQuery)).toUriString();
-
-        logger.info("Querying Overpass API: {}", fullUrl);
-
-        try {
-            HttpHeaders overpassHeaders = new HttpHeaders();
-            overpassHeaders.set("User-Agent", APP_USER_AGENT);
-            overpassHeaders.setAccept(List.of(MediaType.APPLICATION_JSON));
-            HttpEntity<String> overpassEntity = new HttpEntity<>(overpassHeaders);
-
-            ResponseEntity<OverpassResponse> response = restTemplate.exchange(
-                    fullUrl, HttpMethod.GET, overpassEntity, OverpassResponse.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                List<LabResult> labs = response.getBody().getElements().stream()
-                        .map(element -> convertToLabResult(element, state, district))
-                        .filter(java.util.Objects::nonNull)
-                        .filter(lab -> lab.getName() != null && !lab.getName().equalsIgnoreCase("Unknown Lab") && lab.getLat() != 0.0 && lab.getLon() != 0.0)
-                        .collect(Collectors.toList());
-                logger.info("Found {} potential labs near {} (State: {}, District: {}) using Overpass.", labs.size(), locationToGeocode, state, district);
-                return labs;
-            } else {
-                logger.error("Error from Overpass API: {} - Body: {}", response.getStatusCode(), response.getBody() != null ? response.getBody().toString() : "null");
-                return Collections.emptyList();
-            }
-        } catch (Exception e) {
-            logger.error("Exception while calling Overpass API: {}", e.getMessage(), e);
+        // Served from the shared tile cache; Overpass is only called for tiles nobody searched recently
+        Optional<List<OverpassElement>> elements = overpassTiles.elementsAround(
+                OverpassTileCache.AmenityClass.LAB, lat, lon, searchRadius);
+        if (elements.isEmpty()) {
             return Collections.emptyList();
         }
-    }
-
-    private List<NominatimResult> geocodeOsmLocation(String placeName, String stateContext, String countryContext) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.set("User-Agent", APP_USER_AGENT); // Consistent User-Agent
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        HttpEntity<String> entity = new HttpEntity<>(headers);
 
-        UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(NOMINATIM_API_URL);
-
-        // **** MODIFICATION IS HERE ****
-        // We use 'placeName' for the 'city' parameter, similar to how PharmacyService does.
-        // The 'stateContext' parameter in the Nominatim query is commented out/removed
-        // as it seems to be causing issues with Nominatim's lookup for "Chennai".
-        if (placeName != null && !placeName.isEmpty()) {
-            builder.queryParam("city", placeName); // Using 'city' like in PharmacyService
-        }
-        // builder.queryParam("state", stateContext); // <<-- THIS LINE IS COMMENTED OUT / REMOVED
-        builder.queryParam("country", countryContext);
-        builder.queryParam("format", "json");
-        builder.queryParam("limit", 1); // Get the top result (PharmacyService uses 5, 1 is fine for specific geocoding)
-        // **** END OF MODIFICATION ****
-
-
-        String urlToCall = builder.toUriString();
-        // Added stateContext to the log for better debugging if issues persist
-        logger.info("Querying Nominatim API (Attempt for place: '{}', in context of state: '{}') with URL: {}", placeName, stateContext, urlToCall);
-
-        try {
-            ResponseEntity<String> responseEntity = restTemplate.exchange(
-                    urlToCall, HttpMethod.GET, entity, String.class);
-
-            String responseBody = responseEntity.getBody();
-            logger.info("Nominatim raw response for \"{}\": {}", placeName, responseBody);
-
-            if (responseEntity.getStatusCode().is2xxSuccessful() && responseBody != null && !responseBody.trim().isEmpty() && !responseBody.trim().equals("[]")) {
-                List<NominatimResult> results = objectMapper.readValue(responseBody, new TypeReference<List<NominatimResult>>() {});
-                if (results.isEmpty()) {
-                    logger.warn("Nominatim returned 200 OK but an empty JSON array for: {}", placeName);
-                    return Collections.emptyList();
-                }
-                logger.info("Nominatim successfully geocoded \"{}\". Found {} result(s). Top result display_name: {}", placeName, results.size(), results.get(0).getDisplay_name());
-                return results;
-            } else {
-                logger.error("Error from Nominatim API or empty/unexpected response for \"{}\": Status {}, Body: {}", placeName, responseEntity.getStatusCode(), responseBody);
-                return Collections.emptyList();
-            }
-        } catch (HttpClientErrorException e) {
-            logger.error("HttpClientErrorException (Nominatim) for \"{}\": Status {}, Body: {}", placeName, e.getStatusCode(), e.getResponseBodyAsString(), e);
-            return Collections.emptyList();
-        } catch (Exception e) {
-            logger.error("Generic Exception during Nominatim call for \"{}\": ", placeName, e);
-            return Collections.emptyList();
-        }
+        List<LabResult> labs = elements.get().stream()
+                .map(element -> convertToLabResult(element, state, district))
+                .filter(java.util.Objects::nonNull)
+                .filter(lab -> lab.getName() != null && !lab.getName().equalsIgnoreCase("Unknown Lab") && lab.getLat() != 0.0 && lab.getLon() != 0.0)
+                // Tiles cover the whole bounding box; keep only what lies inside the search circle
+                .filter(lab -> GeoUtils.haversineMeters(lat, lon, lab.getLat(), lab.getLon()) <= searchRadius)
+                .toList();
+        logger.info("Found {} potential labs near {} (State: {}, District: {}) using Overpass.", labs.size(), locationToGeocode, state, district);
+        return labs;
     }
 
     private LabResult convertToLabResult(OverpassElement element, String state, String district) {
@@ -0,0 +1,333 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.MedicineReminder;
+import com.example.curebuddy_backend.repository.MedicineReminderRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Daily medicine reminders held in an in-memory timing wheel with one slot per minute of the day.
+ * A dedicated tick thread walks the wheel every second, catching up on any minutes it missed,
+ * and hands due reminders to a bounded pool that queues them in the notification outbox, so neither Mongo
+ * nor a slow mail or SMS provider ever delays the next tick.
+ * The wheel is loaded from Mongo at startup, reloaded periodically, and updated in place by schedule() and cancel().
+ * Those only reach this JVM's wheel, so before dispatching a minute the node re-reads that minute's reminders from
+ * Mongo and refreshes the slot: a reminder created, edited or deleted through any replica is sent (or not) correctly
+ * by whichever node holds its partition. The wheel's copy is used only when Mongo cannot be read.
+ * With several replicas, each one sends only for the patient partitions leased to it by ReminderLeaseService.
+ * A partition taken over from another node is re-dispatched from the last minute that node confirmed, so
+ * reminders due during the hand-over still go out; the outbox idempotency key drops any it already queued.
+ */
+@Service
+public class MedicineReminderScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(MedicineReminderScheduler.class);
+    private static final int SLOTS = 24 * 60;
+
+    private final MedicineReminderRepository reminderRepo;
+    private final NotificationOutboxService outbox;
+    private final ReminderLeaseService leaseService;
+    private final ScheduledExecutorService ticker;
+    private final ThreadPoolExecutor senders;
+    private final Timer dispatchLag;
+    private final Counter queued;
+    private final Counter failed;
+
+    // Slot = minute of day; each slot maps reminder id -> reminder
+    private volatile Map<String, MedicineReminder>[] wheel = newWheel();
+    private final Map<String, Integer> slotById = new ConcurrentHashMap<>();
+
+    // Changes made by schedule() and cancel() while a reload reads Mongo; replayed onto the fresh wheel before the swap.
+    // Null when no reload is running. Guarded by this.
+    private List<WheelChange> changesDuringReload;
+
+    // A scheduled (or rescheduled) reminder, or a cancelled id when reminder is null
+    private record WheelChange(String id, MedicineReminder reminder) {
+    }
+
+    // Last minute whose slot has been dispatched; null until the first load completes
+    private volatile LocalDateTime lastTicked;
+
+    @Value("${reminder.wheel.reload-interval-ms:900000}")
+    private long reloadIntervalMs;
+
+    @Value("${reminder.wheel.max-catch-up-minutes:10}")
+    private long maxCatchUpMinutes;
+
+    @Value("${reminder.sms.default-recipient:+917339202176}")
+    private String smsRecipient;
+
+    public MedicineReminderScheduler(MedicineReminderRepository reminderRepo,
+                                     NotificationOutboxService outbox,
+                                     ReminderLeaseService leaseService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${reminder.sender.threads:4}") int senderThreads,
+                                     @Value("${reminder.sender.queue-capacity:1000}") int queueCapacity) {
+        this.reminderRepo = reminderRepo;
+        this.outbox = outbox;
+        this.leaseService = leaseService;
+        // Two threads so a slow reload never stalls the tick
+        AtomicInteger tickerCount = new AtomicInteger();
+        this.ticker = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "reminder-wheel-" + tickerCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        // A full queue runs the send on the tick thread: it slows the wheel down instead of dropping reminders
+        this.senders = new ThreadPoolExecutor(
+                senderThreads, senderThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "reminder-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.dispatchLag = Timer.builder("reminders.dispatch.lag")
+                .description("Delay between a reminder's due minute and it being queued for delivery")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.queued = Counter.builder("reminders.queued").register(meterRegistry);
+        this.failed = Counter.builder("reminders.failed").register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // Loading runs on the wheel's own threads so an unreachable Mongo never holds up startup
+        ticker.scheduleWithFixedDelay(this::reload, 0, reloadIntervalMs, TimeUnit.MILLISECONDS);
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+    }
+
+    public synchronized void schedule(MedicineReminder reminder) {
+        if (reminder.getId() == null) {
+            return;
+        }
+        place(wheel, slotById, reminder.getId(), reminder);
+        if (changesDuringReload != null) {
+            changesDuringReload.add(new WheelChange(reminder.getId(), reminder));
+        }
+    }
+
+    public synchronized void cancel(String reminderId) {
+        place(wheel, slotById, reminderId, null);
+        if (changesDuringReload != null) {
+            changesDuringReload.add(new WheelChange(reminderId, null));
+        }
+    }
+
+    // Removes the id from whatever slot holds it, then adds the reminder (if any) at its time
+    private static void place(Map<String, MedicineReminder>[] slots, Map<String, Integer> slotIndex,
+                              String id, MedicineReminder reminder) {
+        Integer previous = slotIndex.remove(id);
+        if (previous != null) {
+            slots[previous].remove(id);
+        }
+        if (reminder == null || reminder.getReminderTime() == null) {
+            return;
+        }
+        int slot = slotOf(reminder.getReminderTime());
+        slots[slot].put(id, reminder);
+        slotIndex.put(id, slot);
+    }
+
+    private void reload() {
+        synchronized (this) {
+            changesDuringReload = new ArrayList<>();
+        }
+        try {
+            Map<String, MedicineReminder>[] fresh = newWheel();
+            Map<String, Integer> freshSlots = new ConcurrentHashMap<>();
+            for (MedicineReminder reminder : reminderRepo.findAll()) {
+                if (reminder.getId() != null) {
+                    place(fresh, freshSlots, reminder.getId(), reminder);
+                }
+            }
+            int count;
+            synchronized (this) {
+                // The read may predate changes made here since it started; those win over what Mongo returned
+                for (WheelChange change : changesDuringReload) {
+                    place(fresh, freshSlots, change.id(), change.reminder());
+                }
+                wheel = fresh;
+                slotById.clear();
+                slotById.putAll(freshSlots);
+                count = freshSlots.size();
+            }
+            if (lastTicked == null) {
+                lastTicked = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES).minusMinutes(1);
+            }
+            logger.info("Loaded {} medicine reminders into the timing wheel", count);
+        } catch (Exception e) {
+            logger.warn("Could not load medicine reminders, retrying in {} ms: {}", reloadIntervalMs, e.getMessage());
+        } finally {
+            synchronized (this) {
+                changesDuringReload = null;
+            }
+        }
+    }
+
+    private void tick() {
+        try {
+            if (lastTicked == null) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+            LocalDateTime oldest = now.minusMinutes(maxCatchUpMinutes);
+            if (lastTicked.isBefore(oldest)) {
+                logger.warn("Reminder wheel fell {} minutes behind, skipping to {}",
+                        ChronoUnit.MINUTES.between(lastTicked, now), oldest);
+                lastTicked = oldest;
+            }
+            // Every minute since the last tick, so a late or stalled tick thread still fires each slot once
+            while (lastTicked.isBefore(now)) {
+                LocalDateTime due = lastTicked.plusMinutes(1);
+                dispatch(due, -1);
+                lastTicked = due;
+            }
+            catchUpTakenOverPartitions(oldest);
+            leaseService.recordDispatchedThrough(lastTicked.atZone(ZoneId.systemDefault()).toInstant());
+        } catch (Exception e) {
+            logger.error("Reminder wheel tick failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // Minutes the previous holder of a partition never confirmed, up to the last one this node has dispatched
+    private void catchUpTakenOverPartitions(LocalDateTime oldest) {
+        for (Map.Entry<Integer, Instant> takeOver : leaseService.takeCatchUps().entrySet()) {
+            LocalDateTime since = LocalDateTime.ofInstant(takeOver.getValue(), ZoneId.systemDefault())
+                    .truncatedTo(ChronoUnit.MINUTES);
+            LocalDateTime minute = since.isBefore(oldest) ? oldest : since;
+            int caughtUp = 0;
+            while (minute.isBefore(lastTicked)) {
+                minute = minute.plusMinutes(1);
+                dispatch(minute, takeOver.getKey());
+                caughtUp++;
+            }
+            if (caughtUp > 0) {
+                logger.info("Caught up {} minutes of reminders for taken-over partition {}", caughtUp, takeOver.getKey());
+            }
+        }
+    }
+
+    // partition -1 = every partition this node holds
+    void dispatch(LocalDateTime due, int partition) {
+        long dueMillis = due.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        for (MedicineReminder reminder : dueReminders(due)) {
+            // Every node keeps the whole wheel but only sends for patients in the partitions it holds
+            if (!leaseService.ownsPatient(reminder.getPatientEmail())
+                    || (partition >= 0 && leaseService.partitionOf(reminder.getPatientEmail()) != partition)) {
+                continue;
+            }
+            senders.execute(() -> {
+                dispatchLag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - dueMillis)));
+                send(reminder, due);
+            });
+        }
+    }
+
+    // The minute's reminders as Mongo has them now, written back into the slot; the wheel's copy if Mongo is down
+    private Collection<MedicineReminder> dueReminders(LocalDateTime due) {
+        int slot = slotOf(due.toLocalTime());
+        LocalTime from = due.toLocalTime().truncatedTo(ChronoUnit.MINUTES);
+        Range<LocalTime> minute = slot == SLOTS - 1
+                ? Range.closed(from, LocalTime.MAX)
+                : Range.rightOpen(from, from.plusMinutes(1));
+        List<MedicineReminder> current;
+        try {
+            current = reminderRepo.findByReminderTimeBetween(minute);
+        } catch (Exception e) {
+            logger.warn("Could not re-read reminders due at {}, using the wheel: {}", from, e.getMessage());
+            return wheel[slot].values();
+        }
+        refreshSlot(slot, current);
+        return current;
+    }
+
+    // Drops ids no longer due in this slot (deleted or moved elsewhere) and places what Mongo returned
+    private synchronized void refreshSlot(int slot, List<MedicineReminder> current) {
+        Set<String> currentIds = new HashSet<>();
+        for (MedicineReminder reminder : current) {
+            currentIds.add(reminder.getId());
+        }
+        for (String id : List.copyOf(wheel[slot].keySet())) {
+            if (!currentIds.contains(id)) {
+                cancel(id);
+            }
+        }
+        for (MedicineReminder reminder : current) {
+            schedule(reminder);
+        }
+    }
+
+    private void send(MedicineReminder reminder, LocalDateTime due) {
+        // Keyed by reminder and minute, so a catch-up or a partition hand-over never queues the same reminder twice
+        String key = "medicine-reminder:" + reminder.getId() + ":" + due;
+        try {
+            outbox.enqueueEmail(
+                    key,
+                    reminder.getPatientEmail(),
+                    "Medicine Reminder 💊",
+                    "Dear Patient,\n\nPlease take your medicine: " + reminder.getMedicineName() + ".\n\nStay Healthy, Cure Buddy."
+            );
+            outbox.enqueueSms(
+                    key,
+                    smsRecipient,
+                    "Medicine Reminder: Take " + reminder.getMedicineName() + " - Cure Buddy"
+            );
+            queued.increment();
+        } catch (Exception e) {
+            failed.increment();
+            logger.error("Failed to queue medicine reminder {} for {}: {}", reminder.getId(), reminder.getPatientEmail(), e.getMessage());
+        }
+    }
+
+    private static int slotOf(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<String, MedicineReminder>[] newWheel() {
+        Map<String, MedicineReminder>[] slots = new Map[SLOTS];
+        for (int i = 0; i < SLOTS; i++) {
+            slots[i] = new ConcurrentHashMap<>();
+        }
+        return slots;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        senders.shutdown();
+    }
+}
@@ -0,0 +1,379 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.NotificationChannel;
+import com.example.curebuddy_backend.model.OutboxMessage;
+import com.example.curebuddy_backend.model.OutboxStatus;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Durable outbox for patient notifications. Callers only insert a PENDING message into notification_outbox,
+ * so SMTP and Twilio latency or outages never reach the API response. A poller claims due messages with
+ * findAndModify and hands them to a bounded worker pool in batches per channel: emails go out over
+ * EmailService's pooled SMTP connections, SMS through TwilioService's rate-limited bulk send; failures are retried with exponential backoff
+ * until notification.outbox.max-attempts, after which the message is marked DEAD for inspection.
+ * Delivery is at-least-once: a worker that dies mid-send leaves a SENDING claim that is picked up again
+ * once notification.outbox.sending-timeout-ms has passed. Workers renew their claims when a batch starts and, for SMS,
+ * again just before each message goes out, skipping any claim that expired and was taken by another worker.
+ * No more SMS are claimed ahead of the workers than the rate limit can send in half the sending timeout.
+ */
+@Service
+public class NotificationOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final EmailService emailService;
+    private final TwilioService twilioService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor workers;
+    private final Thread poller;
+
+    // SMS claimed by drain() whose batch has not finished yet
+    private final AtomicInteger smsInFlight = new AtomicInteger();
+
+    // Capacity 1: any number of enqueues between two polls collapse into one wake-up
+    private final BlockingQueue<Boolean> wakeUps = new ArrayBlockingQueue<>(1);
+    private volatile boolean running = true;
+
+    @Value("${notification.outbox.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${notification.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${notification.outbox.initial-backoff-ms:5000}")
+    private long initialBackoffMs;
+
+    @Value("${notification.outbox.max-backoff-ms:3600000}")
+    private long maxBackoffMs;
+
+    @Value("${notification.outbox.sending-timeout-ms:300000}")
+    private long sendingTimeoutMs;
+
+    @Value("${notification.outbox.email-batch-size:50}")
+    private int emailBatchSize;
+
+    @Value("${notification.outbox.sms-batch-size:50}")
+    private int smsBatchSize;
+
+    public NotificationOutboxService(MongoTemplate mongoTemplate,
+                                     EmailService emailService,
+                                     TwilioService twilioService,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${notification.outbox.threads:4}") int threads,
+                                     @Value("${notification.outbox.queue-capacity:100}") int queueCapacity) {
+        this.mongoTemplate = mongoTemplate;
+        this.emailService = emailService;
+        this.twilioService = twilioService;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "notification-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                // Claimed messages must never be dropped: with a full queue the poller delivers them itself
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.poller = new Thread(this::pollLoop, "notification-outbox-poller");
+        this.poller.setDaemon(true);
+    }
+
+    public void enqueueEmail(String idempotencyKey, String to, String subject, String body) {
+        enqueue(idempotencyKey, NotificationChannel.EMAIL, to, subject, body);
+    }
+
+    public void enqueueSms(String idempotencyKey, String to, String body) {
+        enqueue(idempotencyKey, NotificationChannel.SMS, to, null, body);
+    }
+
+    private void enqueue(String idempotencyKey, NotificationChannel channel, String recipient, String subject, String body) {
+        OutboxMessage message = new OutboxMessage();
+        message.setIdempotencyKey(idempotencyKey + ":" + channel.name().toLowerCase());
+        message.setChannel(channel);
+        message.setRecipient(recipient);
+        message.setSubject(subject);
+        message.setBody(body);
+        message.setStatus(OutboxStatus.PENDING);
+        message.setCreatedAt(Instant.now());
+        message.setNextAttemptAt(message.getCreatedAt());
+        try {
+            mongoTemplate.insert(message);
+        } catch (DuplicateKeyException e) {
+            logger.debug("Notification {} is already queued", message.getIdempotencyKey());
+            return;
+        }
+        wakeUps.offer(Boolean.TRUE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        poller.start();
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                drain();
+            } catch (Exception e) {
+                logger.warn("Notification outbox poll failed: {}", e.getMessage());
+            }
+            try {
+                wakeUps.poll(pollIntervalMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Claims due messages one at a time, only as many as the worker queue can take right now
+    // and no more SMS than the rate limit can get through before their claims expire
+    private void drain() {
+        List<OutboxMessage> emails = new ArrayList<>();
+        List<OutboxMessage> sms = new ArrayList<>();
+        try {
+            while (running && workers.getQueue().remainingCapacity() > 0) {
+                OutboxMessage message = claimNext(smsInFlight.get() < smsPrefetchLimit());
+                if (message == null) {
+                    break;
+                }
+                if (message.getChannel() == NotificationChannel.EMAIL) {
+                    emails.add(message);
+                    if (emails.size() >= emailBatchSize) {
+                        submitEmails(emails);
+                        emails = new ArrayList<>();
+                    }
+                } else {
+                    smsInFlight.incrementAndGet();
+                    sms.add(message);
+                    if (sms.size() >= smsBatchSize) {
+                        submitSms(sms);
+                        sms = new ArrayList<>();
+                    }
+                }
+            }
+        } finally {
+            // Messages already claimed go out even if a later claim failed
+            if (!emails.isEmpty()) {
+                submitEmails(emails);
+            }
+            if (!sms.isEmpty()) {
+                submitSms(sms);
+            }
+        }
+    }
+
+    private void submitEmails(List<OutboxMessage> batch) {
+        workers.execute(() -> deliverEmails(batch));
+    }
+
+    private void submitSms(List<OutboxMessage> batch) {
+        workers.execute(() -> deliverSms(batch));
+    }
+
+    // Half the sending timeout's worth of SMS at the rate limit, so even the last one queued starts well within its claim
+    private int smsPrefetchLimit() {
+        return (int) Math.max(1, twilioService.getMessagesPerSecond() * sendingTimeoutMs / 1000 / 2);
+    }
+
+    private OutboxMessage claimNext(boolean includeSms) {
+        Instant now = Instant.now();
+        // PENDING messages whose retry time has come, or SENDING claims whose worker never reported back
+        Criteria dueCriteria = Criteria.where("status").in(OutboxStatus.PENDING, OutboxStatus.SENDING)
+                .and("nextAttemptAt").lte(now);
+        if (!includeSms) {
+            dueCriteria = dueCriteria.and("channel").is(NotificationChannel.EMAIL);
+        }
+        Query due = Query.query(dueCriteria).with(Sort.by("nextAttemptAt"));
+        Update claim = new Update()
+                .set("status", OutboxStatus.SENDING)
+                .set("claimToken", UUID.randomUUID().toString())
+                .set("nextAttemptAt", now.plusMillis(sendingTimeoutMs))
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(due, claim, FindAndModifyOptions.options().returnNew(true), OutboxMessage.class);
+    }
+
+    private void deliverEmails(List<OutboxMessage> claimed) {
+        // The batch may have waited in the queue long enough for some claims to expire
+        List<OutboxMessage> batch = claimed.stream().filter(this::holdClaim).toList();
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<SimpleMailMessage> mails = new ArrayList<>(batch.size());
+        for (OutboxMessage message : batch) {
+            SimpleMailMessage mail = new SimpleMailMessage();
+            mail.setTo(message.getRecipient());
+            mail.setSubject(message.getSubject());
+            mail.setText(message.getBody());
+            mails.add(mail);
+        }
+        try {
+            List<EmailService.SendResult> results = emailService.sendBatch(mails);
+            for (int i = 0; i < batch.size(); i++) {
+                EmailService.SendResult result = results.get(i);
+                if (result.sent()) {
+                    markSent(batch.get(i));
+                } else {
+                    fail(batch.get(i), result.error());
+                }
+            }
+        } catch (Exception e) {
+            batch.forEach(message -> fail(message, describe(e)));
+        }
+    }
+
+    private void deliverSms(List<OutboxMessage> claimed) {
+        try {
+            List<OutboxMessage> batch = claimed.stream().filter(this::holdClaim).toList();
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<TwilioService.SmsRequest> requests = batch.stream()
+                    .map(message -> new TwilioService.SmsRequest(message.getRecipient(), message.getBody()))
+                    .toList();
+            // Sends at the rate limit can outlast a claim, so each one is re-checked right before it goes out
+            Set<Integer> lost = ConcurrentHashMap.newKeySet();
+            try {
+                List<TwilioService.SmsResult> results = twilioService.sendBulk(requests, index -> {
+                    if (holdClaim(batch.get(index))) {
+                        return true;
+                    }
+                    lost.add(index);
+                    return false;
+                }).join();
+                for (int i = 0; i < batch.size(); i++) {
+                    TwilioService.SmsResult result = results.get(i);
+                    if (lost.contains(i)) {
+                        continue;
+                    }
+                    if (result.sent()) {
+                        markSent(batch.get(i));
+                    } else {
+                        fail(batch.get(i), result.error());
+                    }
+                }
+            } catch (Exception e) {
+                batch.forEach(message -> fail(message, describe(e)));
+            }
+        } finally {
+            smsInFlight.addAndGet(-claimed.size());
+        }
+    }
+
+    // Pushes the claim's expiry out from now; false if it has expired and another worker has claimed the message since
+    private boolean holdClaim(OutboxMessage message) {
+        try {
+            UpdateResult result = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(message.getId())
+                            .and("claimToken").is(message.getClaimToken())),
+                    new Update().set("nextAttemptAt", Instant.now().plusMillis(sendingTimeoutMs)), OutboxMessage.class);
+            if (result.getMatchedCount() > 0) {
+                return true;
+            }
+            logger.warn("Lost the claim on {} notification {}, not sending it", message.getChannel(), message.getIdempotencyKey());
+        } catch (Exception e) {
+            // Not sending is safe: the claim expires and the message is retried
+            logger.warn("Could not renew the claim on notification {}: {}", message.getIdempotencyKey(), e.getMessage());
+        }
+        count(message, "claim-lost");
+        return false;
+    }
+
+    private void markSent(OutboxMessage message) {
+        complete(message, new Update()
+                .set("status", OutboxStatus.SENT)
+                .set("sentAt", Instant.now())
+                .unset("nextAttemptAt")
+                .unset("lastError"));
+        count(message, "sent");
+    }
+
+    private static String describe(Exception error) {
+        return error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+    }
+
+    private void fail(OutboxMessage message, String error) {
+        String reason = error != null ? error : "Unknown error";
+        if (message.getAttempts() >= maxAttempts) {
+            logger.error("Giving up on {} notification {} to {} after {} attempts: {}", message.getChannel(),
+                    message.getIdempotencyKey(), message.getRecipient(), message.getAttempts(), reason);
+            complete(message, new Update()
+                    .set("status", OutboxStatus.DEAD)
+                    .set("lastError", reason)
+                    .unset("nextAttemptAt"));
+            count(message, "dead");
+            return;
+        }
+
+        Duration backoff = backoffFor(message.getAttempts());
+        logger.warn("{} notification {} failed (attempt {}), retrying in {} s: {}", message.getChannel(),
+                message.getIdempotencyKey(), message.getAttempts(), backoff.toSeconds(), reason);
+        complete(message, new Update()
+                .set("status", OutboxStatus.PENDING)
+                .set("lastError", reason)
+                .set("nextAttemptAt", Instant.now().plus(backoff)));
+        count(message, "retried");
+    }
+
+    // Doubles per attempt up to the cap, with up to 20% jitter so a provider outage does not end in a retry stampede
+    private Duration backoffFor(int attempts) {
+        long base = initialBackoffMs << Math.min(attempts - 1, 30);
+        long capped = base <= 0 ? maxBackoffMs : Math.min(base, maxBackoffMs);
+        long jitter = (long) (capped * 0.2 * ThreadLocalRandom.current().nextDouble());
+        return Duration.ofMillis(capped + jitter);
+    }
+
+    // Only applies if this attempt still holds the claim
+    private void complete(OutboxMessage message, Update update) {
+        try {
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(message.getId())
+                    .and("claimToken").is(message.getClaimToken())), update, OutboxMessage.class);
+        } catch (Exception e) {
+            logger.warn("Could not record the result of notification {}: {}", message.getIdempotencyKey(), e.getMessage());
+        }
+    }
+
+    private void count(OutboxMessage message, String outcome) {
+        meterRegistry.counter("notifications.outbox", "channel", message.getChannel().name(), "outcome", outcome).increment();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        poller.interrupt();
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.OverpassTile;
+import com.example.curebuddy_backend.model.overpass.OverpassElement;
+import com.example.curebuddy_backend.model.overpass.OverpassResponse;
+import com.example.curebuddy_backend.util.Geohash;
+import com.example.curebuddy_backend.util.SingleFlight;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Overpass results cached per amenity class and geohash tile, so nearby searches by different users share
+ * one upstream query. A search collects the tiles covering its circle. Tiles found in memory or in the
+ * overpass_tiles collection are used as they are. Missing tiles are fetched with bounding-box queries of at most
+ * overpass.tile-cache.max-tiles-per-query neighbouring tiles each and stored, empty ones included. A response
+ * carrying a remark (Overpass timed out or ran out of memory) is incomplete, so it is returned but not stored.
+ * Concurrent searches missing the same tiles share those queries.
+ * Callers get every element of the covering tiles and filter by exact distance themselves.
+ */
+@Service
+public class OverpassTileCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OverpassTileCache.class);
+    private static final String APP_USER_AGENT = "CureBuddyApp/1.0 (BackendOverpassTiles; https://github.com/Jaikumar96/Cure-Buddy---Smart-Health-Monitoring-App)";
+    private static final TypeReference<List<OverpassElement>> ELEMENT_LIST = new TypeReference<>() {};
+
+    public enum AmenityClass {
+        PHARMACY("[amenity=pharmacy]"),
+        LAB("[amenity~\"^(hospital|clinic|doctors|laboratory)$\"]");
+
+        private final String filter;
+
+        AmenityClass(String filter) {
+            this.filter = filter;
+        }
+    }
+
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, List<OverpassElement>> cache;
+    private final SingleFlight<String, Map<String, List<OverpassElement>>> fetches;
+    private final Duration ttl;
+    private final int precision;
+    private final int maxTilesPerQuery;
+
+    @Value("${overpass.api.url:https://overpass-api.de/api/interpreter}")
+    private String overpassUrl;
+
+    public OverpassTileCache(RestTemplate restTemplate,
+                             ObjectMapper objectMapper,
+                             MongoTemplate mongoTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${overpass.tile-cache.precision:5}") int precision,
+                             @Value("${overpass.tile-cache.ttl-ms:604800000}") long ttlMs,
+                             @Value("${overpass.tile-cache.max-elements:500000}") long maxElements,
+                             @Value("${overpass.tile-cache.max-tiles-per-query:32}") int maxTilesPerQuery,
+                             @Value("${singleflight.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.mongoTemplate = mongoTemplate;
+        this.precision = precision;
+        this.maxTilesPerQuery = Math.max(1, maxTilesPerQuery);
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.cache = Caffeine.newBuilder()
+                // Weighed by element count so a few dense city-center tiles cannot crowd out the rest
+                .maximumWeight(maxElements)
+                .weigher((String key, List<OverpassElement> elements) -> elements.size() + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "overpass-tiles");
+        this.fetches = new SingleFlight<>("overpass-tiles", meterRegistry, waitTimeoutMs);
+    }
+
+    /**
+     * @return the elements of every tile covering the circle, or empty if Overpass could not be reached for missing tiles.
+     */
+    public Optional<List<OverpassElement>> elementsAround(AmenityClass amenity, double lat, double lon, double radiusMeters) {
+        List<String> tiles = Geohash.coveringTiles(lat, lon, radiusMeters, precision);
+        Map<String, List<OverpassElement>> found = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String tile : tiles) {
+            List<OverpassElement> cached = cache.getIfPresent(keyOf(amenity, tile));
+            if (cached != null) {
+                found.put(tile, cached);
+            } else {
+                missing.add(tile);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            // Users searching the same city at once miss the same tiles; one of them loads, the rest wait for it
+            String flightKey = amenity.name() + ":" + String.join(",", missing);
+            Map<String, List<OverpassElement>> loaded = fetches.execute(flightKey, () -> loadMissing(amenity, missing), () -> null);
+            if (loaded == null) {
+                return Optional.empty();
+            }
+            found.putAll(loaded);
+        }
+        logger.debug("Overpass {} lookup used {} tiles, {} not in memory", amenity, tiles.size(), missing.size());
+
+        List<OverpassElement> elements = new ArrayList<>();
+        for (String tile : tiles) {
+            elements.addAll(found.getOrDefault(tile, List.of()));
+        }
+        return Optional.of(elements);
+    }
+
+    // Null if Overpass could not be reached for tiles found neither in memory nor in Mongo
+    private Map<String, List<OverpassElement>> loadMissing(AmenityClass amenity, Set<String> tiles) {
+        Map<String, List<OverpassElement>> found = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String tile : tiles) {
+            // The previous flight for these tiles may have just stored them
+            List<OverpassElement> cached = cache.getIfPresent(keyOf(amenity, tile));
+            if (cached != null) {
+                found.put(tile, cached);
+            } else {
+                missing.add(tile);
+            }
+        }
+        if (!missing.isEmpty()) {
+            found.putAll(loadPersisted(amenity, missing));
+            missing.removeAll(found.keySet());
+        }
+        if (!missing.isEmpty()) {
+            // Sorted geohashes run along a Z-order curve, so each chunk is a compact group of neighbouring tiles
+            List<String> sorted = new ArrayList<>(missing);
+            Collections.sort(sorted);
+            boolean complete = true;
+            for (int start = 0; start < sorted.size(); start += maxTilesPerQuery) {
+                Map<String, List<OverpassElement>> fetched = fetch(amenity,
+                        sorted.subList(start, Math.min(sorted.size(), start + maxTilesPerQuery)));
+                if (fetched == null) {
+                    // Keep going: chunks that succeed are stored, so a retry only asks for the rest
+                    complete = false;
+                } else {
+                    found.putAll(fetched);
+                }
+            }
+            if (!complete) {
+                return null;
+            }
+        }
+        return found;
+    }
+
+    private Map<String, List<OverpassElement>> loadPersisted(AmenityClass amenity, Set<String> tiles) {
+        Map<String, List<OverpassElement>> loaded = new HashMap<>();
+        try {
+            List<String> keys = tiles.stream().map(tile -> keyOf(amenity, tile)).toList();
+            Instant now = Instant.now();
+            for (OverpassTile stored : mongoTemplate.find(Query.query(Criteria.where("_id").in(keys)), OverpassTile.class)) {
+                if (stored.getExpiresAt() != null && stored.getExpiresAt().isBefore(now)) {
+                    continue; // Expired but not yet removed by the TTL monitor
+                }
+                List<OverpassElement> elements = objectMapper.readValue(stored.getElementsJson(), ELEMENT_LIST);
+                cache.put(stored.getKey(), elements);
+                loaded.put(stored.getKey().substring(stored.getKey().indexOf(':') + 1), elements);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read cached Overpass tiles: {}", e.getMessage());
+        }
+        return loaded;
+    }
+
+    // One bounding-box query for a chunk of missing tiles; elements are bucketed back into their tiles by center point
+    private Map<String, List<OverpassElement>> fetch(AmenityClass amenity, List<String> tiles) {
+        double south = 90, west = 180, north = -90, east = -180;
+        for (String tile : tiles) {
+            double[] bounds = Geohash.bounds(tile);
+            south = Math.min(south, bounds[0]);
+            west = Math.min(west, bounds[1]);
+            north = Math.max(north, bounds[2]);
+            east = Math.max(east, bounds[3]);
+        }
+        String bbox = String.format("(%.6f,%.6f,%.6f,%.6f)", south, west, north, east);
+        String query = "[out:json][timeout:30];(" +
+                "node" + amenity.filter + bbox + ";" +
+                "way" + amenity.filter + bbox + ";" +
+                "relation" + amenity.filter + bbox + ";" +
+                ");out center;";
+        String url = UriComponentsBuilder.fromHttpUrl(overpassUrl)
+                .queryParam("data", "{overpassQueryData}")
+                .buildAndExpand(Map.of("overpassQueryData", query))
+                .toUriString();
+
+        OverpassResponse response;
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.set("User-Agent", APP_USER_AGENT);
+            headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+            logger.info("Fetching {} Overpass tiles for {}", tiles.size(), amenity);
+            ResponseEntity<OverpassResponse> entity = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), OverpassResponse.class);
+            response = entity.getBody();
+            if (!entity.getStatusCode().is2xxSuccessful() || response == null) {
+                logger.error("Error from Overpass API: {}", entity.getStatusCode());
+                return null;
+            }
+        } catch (Exception e) {
+            logger.error("Exception while calling Overpass API: {}", e.getMessage());
+            return null;
+        }
+
+        Map<String, List<OverpassElement>> byTile = new HashMap<>();
+        tiles.forEach(tile -> byTile.put(tile, new ArrayList<>()));
+        if (response.getElements() != null) {
+            for (OverpassElement element : response.getElements()) {
+                double lat = element.getLat();
+                double lon = element.getLon();
+                if ((lat == 0.0 || lon == 0.0) && element.getCenter() != null) {
+                    lat = element.getCenter().getLat();
+                    lon = element.getCenter().getLon();
+                }
+                // The box can reach into tiles that were already cached; those elements are dropped here
+                List<OverpassElement> bucket = byTile.get(Geohash.encode(lat, lon, precision));
+                if (bucket != null) {
+                    bucket.add(element);
+                }
+            }
+        }
+        if (response.getRemark() != null && !response.getRemark().isBlank()) {
+            // Partial results would otherwise be served from the cache as complete tiles for the whole ttl
+            logger.warn("Overpass returned an incomplete result for {} tiles, not caching it: {}", tiles.size(), response.getRemark());
+            return byTile;
+        }
+        byTile.forEach((tile, elements) -> store(amenity, tile, elements));
+        return byTile;
+    }
+
+    private void store(AmenityClass amenity, String tile, List<OverpassElement> elements) {
+        String key = keyOf(amenity, tile);
+        cache.put(key, elements);
+        try {
+            OverpassTile stored = new OverpassTile();
+            stored.setKey(key);
+            stored.setElementsJson(objectMapper.writeValueAsString(elements));
+            stored.setFetchedAt(Instant.now());
+            stored.setExpiresAt(stored.getFetchedAt().plus(ttl));
+            mongoTemplate.save(stored);
+        } catch (Exception e) {
+            logger.warn("Could not persist Overpass tile {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static String keyOf(AmenityClass amenity, String tile) {
+        return amenity.name().toLowerCase() + ":" + tile;
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.curebuddy_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The application's one PasswordEncoder: BCrypt at security.password.bcrypt-cost, run on a dedicated pool
+ * sized to the CPU. During a login peak hashing queues there instead of running on every Tomcat thread at once.
+ * At most security.password.hashing.max-waiters request threads may be hashing or waiting for a hash, well under
+ * the Tomcat pool, so a login peak cannot park every request thread; past that, requests fail fast with 503.
+ * Hashes made at a different cost are reported by upgradeEncoding, so Spring Security rehashes them on the
+ * next successful login (see UserDetailsServiceImpl.updatePassword) and a cost change rolls out transparently.
+ */
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final BCryptPasswordEncoder bcrypt;
+    private final int cost;
+    private final ThreadPoolExecutor hashers;
+    private final Semaphore waiters;
+    private final long acquireTimeoutMs;
+    private final long timeoutMs;
+
+    public PasswordHashingService(@Value("${security.password.bcrypt-cost:10}") int cost,
+                                  @Value("${security.password.hashing.threads:0}") int threads,
+                                  @Value("${security.password.hashing.max-waiters:50}") int maxWaiters,
+                                  @Value("${security.password.hashing.acquire-timeout-ms:50}") long acquireTimeoutMs,
+                                  @Value("${security.password.hashing.timeout-ms:2000}") long timeoutMs) {
+        this.cost = cost;
+        this.bcrypt = new BCryptPasswordEncoder(cost);
+        this.waiters = new Semaphore(Math.max(1, maxWaiters));
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.timeoutMs = timeoutMs;
+        // 0 means one thread per core: BCrypt is pure CPU, more threads only add contention
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.hashers = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                60, TimeUnit.SECONDS,
+                // Every task holds a waiter permit, so the queue never needs more room than there are permits
+                new ArrayBlockingQueue<>(Math.max(1, maxWaiters)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> bcrypt.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> bcrypt.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        // Both ways: raising the cost hardens old hashes, lowering it speeds logins up once users come back
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != cost;
+    }
+
+    private <T> T run(Callable<T> task) {
+        try {
+            if (!waiters.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Too many requests waiting for password hashing, rejecting request");
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, please try again");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to hash password", e);
+        }
+        try {
+            return await(task);
+        } finally {
+            waiters.release();
+        }
+    }
+
+    private <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = hashers.submit(task);
+        } catch (RejectedExecutionException e) {
+            // Only if cancelled hashes are still finishing on the pool after their waiters gave up
+            logger.warn("Password hashing queue is full, rejecting request");
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, please try again");
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server busy, please try again");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashers.shutdown();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.curebuddy_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Strips text from PDFs, splitting large documents into page ranges that are processed in parallel
+ * on a shared fork-join pool and joined back in page order.
+ * PDDocument is not thread-safe, so every range loads its own copy of the file.
+ */
+@Component
+public class PdfTextExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfTextExtractor.class);
+
+    private final ForkJoinPool pool;
+    private final int pagesPerChunk;
+    private final int maxChunksPerDocument;
+    private final boolean memoryMapped;
+
+    public PdfTextExtractor(@Value("${report.extraction.parallelism:0}") int parallelism,
+                            @Value("${report.extraction.pages-per-chunk:25}") int pagesPerChunk,
+                            @Value("${report.extraction.max-chunks-per-document:4}") int maxChunksPerDocument,
+                            @Value("${report.extraction.memory-mapped:false}") boolean memoryMapped) {
+        // 0 means one worker per core
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.pagesPerChunk = Math.max(1, pagesPerChunk);
+        this.maxChunksPerDocument = Math.max(1, maxChunksPerDocument);
+        this.memoryMapped = memoryMapped;
+    }
+
+    public String extractText(Path path) throws IOException {
+        int pageCount;
+        try (PDDocument document = load(path)) {
+            if (document.isEncrypted()) {
+                throw new IOException("PDF is encrypted, cannot extract text without decryption: " + path);
+            }
+            pageCount = document.getNumberOfPages();
+            // Small documents are not worth a second load
+            if (pageCount <= pagesPerChunk) {
+                return stripPages(document, 1, pageCount);
+            }
+        }
+
+        // Never more ranges than the per-document cap, so one huge upload cannot take over the pool
+        int chunkCount = (pageCount + pagesPerChunk - 1) / pagesPerChunk;
+        int rangeCount = Math.min(chunkCount, maxChunksPerDocument);
+        int pagesPerRange = (pageCount + rangeCount - 1) / rangeCount;
+
+        List<ForkJoinTask<String>> ranges = new ArrayList<>(rangeCount);
+        for (int startPage = 1; startPage <= pageCount; startPage += pagesPerRange) {
+            int start = startPage;
+            int end = Math.min(pageCount, startPage + pagesPerRange - 1);
+            ranges.add(pool.submit(() -> stripRange(path, start, end)));
+        }
+        logger.debug("Extracting {} pages of {} in {} parallel ranges", pageCount, path, ranges.size());
+
+        StringBuilder text = new StringBuilder();
+        try {
+            for (ForkJoinTask<String> range : ranges) {
+                text.append(range.get());
+            }
+        } catch (InterruptedException e) {
+            ranges.forEach(range -> range.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting text from " + path, e);
+        } catch (ExecutionException e) {
+            ranges.forEach(range -> range.cancel(true));
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ioException ? ioException : new IOException(cause.getMessage(), cause);
+        }
+        return text.toString();
+    }
+
+    private String stripRange(Path path, int startPage, int endPage) throws IOException {
+        try (PDDocument document = load(path)) {
+            return stripPages(document, startPage, endPage);
+        }
+    }
+
+    // File-backed source plus temp-file scratch buffers keep PDFBox from holding whole documents on the heap
+    private PDDocument load(Path path) throws IOException {
+        RandomAccessRead source = memoryMapped
+                ? new RandomAccessReadMemoryMappedFile(path)
+                : new RandomAccessReadBufferedFile(path);
+        try {
+            return Loader.loadPDF(source, IOUtils.createTempFileOnlyStreamCache());
+        } catch (IOException e) {
+            source.close();
+            throw e;
+        }
+    }
+
+    private String stripPages(PDDocument document, int startPage, int endPage) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(startPage);
+        stripper.setEndPage(endPage);
+        return stripper.getText(document);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,279 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.dto.NearbyPharmacyResponse;
+import com.example.curebuddy_backend.model.Pharmacy;
+import com.example.curebuddy_backend.model.overpass.OverpassElement;
+import com.example.curebuddy_backend.model.overpass.OverpassResponse;
+import com.example.curebuddy_backend.util.GeoGridIndex;
+import com.example.curebuddy_backend.util.NearestK;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory spatial index of every pharmacy in an offline OpenStreetMap extract, so the pharmacy locator
+ * answers from memory instead of a live Overpass query. The extract is Overpass JSON of amenity=pharmacy
+ * nodes and ways with "out center;", e.g. from
+ * [out:json];area["ISO3166-1"="IN"]->.in;(node[amenity=pharmacy](area.in);way[amenity=pharmacy](area.in););out center;
+ * A binary snapshot of the parsed index is written next to it, so a restart loads in a fraction of the parse time.
+ * Address tags are kept per entry, so an entry without addr:city is formatted with the searched city just as
+ * the Overpass path formats it.
+ * Until an index is loaded, or if no extract is configured, callers fall back to Overpass.
+ */
+@Service
+public class PharmacyIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PharmacyIndexService.class);
+    private static final int SNAPSHOT_MAGIC = 0x50484958; // "PHIX"
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private record Snapshot(GeoGridIndex index, Pharmacy[] pharmacies, PharmacyService.AddressParts[] addresses,
+                            Instant builtAt) {
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private volatile Snapshot snapshot;
+
+    @Value("${pharmacy.index.enabled:true}")
+    private boolean enabled;
+
+    @Value("${pharmacy.index.source-file:data/osm/pharmacies-india.json}")
+    private Path sourceFile;
+
+    @Value("${pharmacy.index.snapshot-file:data/osm/pharmacy-index.bin}")
+    private Path snapshotFile;
+
+    @Value("${pharmacy.index.cell-degrees:0.05}")
+    private double cellDegrees;
+
+    public PharmacyIndexService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isReady() {
+        return snapshot != null;
+    }
+
+    /**
+     * @return pharmacies within the radius, nearest first, or empty if no index is loaded. Entries without an
+     * addr:city tag are reported under queryCity.
+     */
+    public Optional<List<Pharmacy>> findWithin(double lat, double lon, double radiusMeters, String queryCity) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        List<Map.Entry<Integer, Double>> hits = new ArrayList<>();
+        current.index().visitWithin(lat, lon, radiusMeters, (id, distance) -> hits.add(Map.entry(id, distance)));
+        hits.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+        return Optional.of(hits.stream().map(hit -> withQueryCity(current, hit.getKey(), queryCity)).toList());
+    }
+
+    private static Pharmacy withQueryCity(Snapshot current, int id, String queryCity) {
+        Pharmacy pharmacy = current.pharmacies()[id];
+        PharmacyService.AddressParts address = current.addresses()[id];
+        if (address.city() != null || queryCity == null || queryCity.isEmpty()) {
+            return pharmacy;
+        }
+        String formatted = address.format(queryCity);
+        return new Pharmacy(pharmacy.getName(), formatted.isEmpty() ? queryCity : formatted, pharmacy.getPhone(),
+                pharmacy.getWebsite(), pharmacy.getLat(), pharmacy.getLon(), queryCity, pharmacy.getId());
+    }
+
+    /**
+     * @return the k pharmacies nearest to the point within the radius, nearest first, or empty if no index is loaded.
+     */
+    public Optional<List<NearbyPharmacyResponse>> findNearest(double lat, double lon, double radiusMeters, int k) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        NearestK nearest = new NearestK(k);
+        current.index().visitWithin(lat, lon, radiusMeters, nearest);
+        nearest.sortAscending();
+        List<NearbyPharmacyResponse> result = new ArrayList<>(nearest.size());
+        for (int i = 0; i < nearest.size(); i++) {
+            result.add(NearbyPharmacyResponse.from(current.pharmacies()[nearest.id(i)], nearest.distance(i)));
+        }
+        return Optional.of(result);
+    }
+
+    public Map<String, Object> status() {
+        Snapshot current = snapshot;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", current != null);
+        status.put("pharmacies", current != null ? current.pharmacies().length : 0);
+        status.put("builtAt", current != null ? current.builtAt().toString() : null);
+        status.put("sourceFile", sourceFile.toString());
+        return status;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Parsing a country-sized extract takes a while; the locator uses Overpass until it is done
+        Thread loader = new Thread(this::load, "pharmacy-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    private void load() {
+        try {
+            boolean haveSource = Files.isRegularFile(sourceFile);
+            if (Files.isRegularFile(snapshotFile) && (!haveSource
+                    || !Files.getLastModifiedTime(snapshotFile).toInstant().isBefore(Files.getLastModifiedTime(sourceFile).toInstant()))) {
+                try {
+                    snapshot = readSnapshot();
+                    logger.info("Loaded {} pharmacies from index snapshot {}", snapshot.pharmacies().length, snapshotFile);
+                    return;
+                } catch (IOException e) {
+                    if (!haveSource) {
+                        throw e;
+                    }
+                    // e.g. a snapshot written by an older version
+                    logger.info("Could not read pharmacy index snapshot {} ({}), rebuilding it", snapshotFile, e.getMessage());
+                }
+            }
+            if (haveSource) {
+                rebuild();
+            } else {
+                logger.info("No pharmacy extract at {}, pharmacy lookups will use Overpass", sourceFile);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load the pharmacy index, pharmacy lookups will use Overpass: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Re-reads the extract, swaps in the new index and rewrites the snapshot.
+     * @return the number of pharmacies indexed.
+     */
+    public synchronized int rebuild() throws IOException {
+        long started = System.nanoTime();
+        OverpassResponse extract = objectMapper.readValue(sourceFile.toFile(), OverpassResponse.class);
+        List<Pharmacy> pharmacies = new ArrayList<>();
+        List<PharmacyService.AddressParts> addresses = new ArrayList<>();
+        if (extract.getElements() != null) {
+            for (OverpassElement element : extract.getElements()) {
+                // No query city at ingestion time; findWithin formats untagged entries with the searched one
+                Pharmacy pharmacy = PharmacyService.convertToPharmacy(element, "");
+                if (pharmacy.getName() != null && !pharmacy.getName().equalsIgnoreCase("Unknown Pharmacy")
+                        && pharmacy.getLat() != 0.0 && pharmacy.getLon() != 0.0) {
+                    pharmacies.add(pharmacy);
+                    addresses.add(PharmacyService.AddressParts.of(element.getTags()));
+                }
+            }
+        }
+        Snapshot built = build(pharmacies.toArray(new Pharmacy[0]),
+                addresses.toArray(new PharmacyService.AddressParts[0]), Instant.now());
+        snapshot = built;
+        logger.info("Indexed {} pharmacies from {} in {} ms", pharmacies.size(), sourceFile,
+                (System.nanoTime() - started) / 1_000_000);
+        try {
+            writeSnapshot(built);
+        } catch (IOException e) {
+            logger.warn("Could not write pharmacy index snapshot {}: {}", snapshotFile, e.getMessage());
+        }
+        return pharmacies.size();
+    }
+
+    private Snapshot build(Pharmacy[] pharmacies, PharmacyService.AddressParts[] addresses, Instant builtAt) {
+        double[] lats = new double[pharmacies.length];
+        double[] lons = new double[pharmacies.length];
+        for (int i = 0; i < pharmacies.length; i++) {
+            lats[i] = pharmacies[i].getLat();
+            lons[i] = pharmacies[i].getLon();
+        }
+        return new Snapshot(new GeoGridIndex(lats, lons, cellDegrees), pharmacies, addresses, builtAt);
+    }
+
+    private void writeSnapshot(Snapshot built) throws IOException {
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, "pharmacy-index", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(built.builtAt().toEpochMilli());
+            out.writeInt(built.pharmacies().length);
+            for (int i = 0; i < built.pharmacies().length; i++) {
+                Pharmacy pharmacy = built.pharmacies()[i];
+                PharmacyService.AddressParts address = built.addresses()[i];
+                out.writeDouble(pharmacy.getLat());
+                out.writeDouble(pharmacy.getLon());
+                writeNullable(out, pharmacy.getId());
+                writeNullable(out, pharmacy.getName());
+                writeNullable(out, pharmacy.getAddress());
+                writeNullable(out, pharmacy.getPhone());
+                writeNullable(out, pharmacy.getWebsite());
+                writeNullable(out, pharmacy.getCity());
+                out.writeUTF(address.street());
+                writeNullable(out, address.city());
+                out.writeUTF(address.postcode());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        // Readers never see a half-written snapshot
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Snapshot readSnapshot() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported pharmacy index snapshot format");
+            }
+            Instant builtAt = Instant.ofEpochMilli(in.readLong());
+            Pharmacy[] pharmacies = new Pharmacy[in.readInt()];
+            PharmacyService.AddressParts[] addresses = new PharmacyService.AddressParts[pharmacies.length];
+            for (int i = 0; i < pharmacies.length; i++) {
+                double lat = in.readDouble();
+                double lon = in.readDouble();
+                String id = readNullable(in);
+                String name = readNullable(in);
+                String address = readNullable(in);
+                String phone = readNullable(in);
+                String website = readNullable(in);
+                String city = readNullable(in);
+                pharmacies[i] = new Pharmacy(name, address, phone, website, lat, lon, city, id);
+                addresses[i] = new PharmacyService.AddressParts(in.readUTF(), readNullable(in), in.readUTF());
+            }
+            return build(pharmacies, addresses, builtAt);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
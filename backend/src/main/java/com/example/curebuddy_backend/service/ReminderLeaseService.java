@@ -0,0 +1,210 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.ReminderLease;
+import com.example.curebuddy_backend.model.ReminderNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
+
+/**
+ * Splits reminder work between backend replicas. Patients are hashed into a fixed number of partitions,
+ * and each node holds time-limited leases on its fair share of them in the reminder_leases collection.
+ * Leases are renewed well before they expire; a node that stops renewing loses its partitions to the
+ * others once the lease runs out, and a node holding more than its share hands the extra ones back.
+ * The reminder jobs only send for patients in partitions this node currently holds.
+ * Each lease also records the last minute its holder's medicine reminder wheel dispatched; a node taking a
+ * partition over catches up on the minutes after that, so reminders due during a hand-over are not lost.
+ */
+@Service
+public class ReminderLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReminderLeaseService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final String nodeId;
+    private final int partitions;
+    private final Duration leaseDuration;
+    private final boolean enabled;
+
+    // Partition -> local expiry of our lease; checked on every lookup so a node cut off from Mongo stops sending in time
+    private volatile Map<Integer, Instant> owned = Map.of();
+
+    // Partitions taken over from another holder -> the minute it had dispatched through, until the wheel catches up
+    private final Map<Integer, Instant> pendingCatchUps = new ConcurrentHashMap<>();
+
+    // Last minute the medicine reminder wheel dispatched on this node; written to the leases we hold
+    private volatile Instant dispatchedThrough;
+
+    public ReminderLeaseService(MongoTemplate mongoTemplate,
+                                @Value("${spring.application.name:curebuddy-backend}") String applicationName,
+                                @Value("${reminder.partitions:16}") int partitions,
+                                @Value("${reminder.lease.duration-ms:30000}") long leaseDurationMs,
+                                @Value("${reminder.lease.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.nodeId = applicationName + "-" + UUID.randomUUID();
+        this.partitions = Math.max(1, partitions);
+        this.leaseDuration = Duration.ofMillis(leaseDurationMs);
+        this.enabled = enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public int partitionOf(String patientEmail) {
+        // String.hashCode is fixed by the language spec, so every node maps a patient to the same partition
+        return Math.floorMod(patientEmail == null ? 0 : patientEmail.toLowerCase().hashCode(), partitions);
+    }
+
+    public boolean ownsPatient(String patientEmail) {
+        if (!enabled) {
+            return true;
+        }
+        Instant expiresAt = owned.get(partitionOf(patientEmail));
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    public void recordDispatchedThrough(Instant minute) {
+        dispatchedThrough = minute;
+    }
+
+    /**
+     * Partitions acquired from another holder since the last call, each with the minute that holder had
+     * dispatched through; the caller re-dispatches the minutes after it for those partitions.
+     */
+    public Map<Integer, Instant> takeCatchUps() {
+        Map<Integer, Instant> taken = new HashMap<>();
+        for (Integer partition : pendingCatchUps.keySet()) {
+            Instant since = pendingCatchUps.remove(partition);
+            if (since != null) {
+                taken.put(partition, since);
+            }
+        }
+        return taken;
+    }
+
+    @Scheduled(fixedDelayString = "${reminder.lease.renew-interval-ms:10000}", initialDelay = 0)
+    public void renewLeases() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            Instant expiresAt = now.plus(leaseDuration);
+            heartbeat(now);
+
+            long liveNodes = Math.max(1, mongoTemplate.count(
+                    Query.query(Criteria.where("lastSeen").gt(now.minus(leaseDuration))), ReminderNode.class));
+            int fairShare = (int) ((partitions + liveNodes - 1) / liveNodes);
+
+            Map<Integer, ReminderLease> leases = new HashMap<>();
+            for (ReminderLease lease : mongoTemplate.findAll(ReminderLease.class)) {
+                leases.put(lease.getPartition(), lease);
+            }
+
+            Map<Integer, Instant> held = new HashMap<>();
+            // Renew what we hold, up to our share; anything beyond it is released for the other nodes
+            for (ReminderLease lease : leases.values()) {
+                if (!nodeId.equals(lease.getOwner()) || lease.getExpiresAt() == null || lease.getExpiresAt().isBefore(now)) {
+                    continue;
+                }
+                boolean takeOver = isTakeOver(lease.getPartition(), now);
+                if (held.size() < fairShare && claim(lease.getPartition(), now, expiresAt, takeOver)) {
+                    held.put(lease.getPartition(), expiresAt);
+                    if (takeOver) {
+                        noteTakeOver(lease);
+                    }
+                } else {
+                    release(lease.getPartition());
+                }
+            }
+            // Then take free or expired partitions until we hold our share
+            for (int partition = 0; partition < partitions && held.size() < fairShare; partition++) {
+                ReminderLease lease = leases.get(partition);
+                boolean free = lease == null || lease.getExpiresAt() == null || lease.getExpiresAt().isBefore(now);
+                boolean takeOver = isTakeOver(partition, now);
+                if (free && !held.containsKey(partition) && claim(partition, now, expiresAt, takeOver)) {
+                    held.put(partition, expiresAt);
+                    if (takeOver) {
+                        noteTakeOver(lease);
+                    }
+                }
+            }
+
+            if (!held.keySet().equals(owned.keySet())) {
+                logger.info("Node {} now holds reminder partitions {} of {} ({} live nodes)",
+                        nodeId, held.keySet(), partitions, liveNodes);
+            }
+            owned = Map.copyOf(held);
+        } catch (Exception e) {
+            // Keep the current leases until they expire locally; the next round retries
+            logger.warn("Could not renew reminder partition leases: {}", e.getMessage());
+        }
+    }
+
+    private void heartbeat(Instant now) {
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(nodeId)),
+                new Update().set("lastSeen", now), ReminderNode.class);
+    }
+
+    // A partition we did not hold until now, or whose lease lapsed locally, may have minutes nobody dispatched
+    private boolean isTakeOver(int partition, Instant now) {
+        Instant localExpiry = owned.get(partition);
+        return localExpiry == null || !localExpiry.isAfter(now);
+    }
+
+    // Caught up from where the lease says dispatch stopped
+    private void noteTakeOver(ReminderLease lease) {
+        if (lease == null || lease.getDispatchedThrough() == null) {
+            return; // Never dispatched by anyone: nothing can have been missed
+        }
+        pendingCatchUps.merge(lease.getPartition(), lease.getDispatchedThrough(), (a, b) -> a.isBefore(b) ? a : b);
+    }
+
+    // Succeeds if the partition is ours, expired or has never been leased; otherwise the upsert collides on _id
+    // A take-over keeps the previous holder's dispatchedThrough until our wheel has caught up on the partition
+    private boolean claim(int partition, Instant now, Instant expiresAt, boolean takeOver) {
+        Query query = Query.query(Criteria.where("_id").is(partition)
+                .orOperator(Criteria.where("owner").is(nodeId), Criteria.where("expiresAt").lt(now)));
+        Update update = new Update().set("owner", nodeId).set("expiresAt", expiresAt);
+        if (!takeOver) {
+            recordProgress(partition, update);
+        }
+        try {
+            return mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), ReminderLease.class) != null;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private void release(int partition) {
+        Update update = new Update().set("expiresAt", Instant.EPOCH);
+        recordProgress(partition, update);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(partition).and("owner").is(nodeId)),
+                update, ReminderLease.class);
+    }
+
+    // Only once the wheel has caught up on a taken-over partition does our progress speak for it
+    private void recordProgress(int partition, Update update) {
+        Instant through = dispatchedThrough;
+        if (through != null && !pendingCatchUps.containsKey(partition)) {
+            update.set("dispatchedThrough", through);
+        }
+    }
+}
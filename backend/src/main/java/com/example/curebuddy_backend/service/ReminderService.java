@@ -1,57 +1,130 @@
 package com.example.curebuddy_backend.service;
 
 import com.example.curebuddy_backend.model.CheckupSchedule;
-import com.example.curebuddy_backend.repository.CheckupRepository;
-import com.example.curebuddy_backend.service.EmailService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
 
+/**
+ * Daily checkup reminders. Each schedule carries a precomputed nextReminderAt, so the morning job
+ * only reads the schedules due today through the nextReminderAt index, then moves each one on to its
+ * next occurrence with a conditional update before queueing the notifications in the outbox.
+ * Each replica only handles patients in the partitions it leases; the job repeats through the day so that
+ * partitions taken over from a node that went down are still reminded on the same day.
+ */
 @Service
 public class ReminderService {
 
+    private static final Logger logger = LoggerFactory.getLogger(ReminderService.class);
+
     @Autowired
-    private CheckupRepository repo;
+    private MongoTemplate mongoTemplate;
 
     @Autowired
-    private EmailService emailService;
+    private NotificationOutboxService outbox;
 
     @Autowired
-    private TwilioService twilioService;
+    private ReminderLeaseService leaseService;
+
+    @Value("${reminder.checkup.batch-size:500}")
+    private int batchSize;
 
+    @Value("${reminder.sms.default-recipient:+917339202176}")
+    private String smsRecipient;
 
-    @Scheduled(cron = "0 0 9 * * *") // Every day 9 AM // every 30 seconds
+    // Called whenever a schedule is created or edited, before it is saved
+    public void prepareSchedule(CheckupSchedule schedule) {
+        schedule.setNextReminderAt(schedule.nextOccurrenceOnOrAfter(LocalDate.now()));
+    }
+
+    @Scheduled(cron = "${reminder.checkup.cron:0 0 9-20 * * *}") // From 9 AM, hourly re-runs only pick up what is still due
     public void sendReminders() {
         LocalDate today = LocalDate.now();
+        backfillNextReminders(today);
 
-        List<CheckupSchedule> checkups = repo.findAll();
-
-        for (CheckupSchedule checkup : checkups) {
-            if (checkup.getScheduledDateTime().toLocalDate().equals(today)) {
+        // Anything before tomorrow: today's occurrences plus any a missed run left behind
+        Query due = Query.query(Criteria.where("nextReminderAt").lt(today.plusDays(1).atStartOfDay()))
+                .cursorBatchSize(batchSize);
+        int queued = 0;
+        try (Stream<CheckupSchedule> schedules = mongoTemplate.stream(due, CheckupSchedule.class)) {
+            Iterator<CheckupSchedule> iterator = schedules.iterator();
+            while (iterator.hasNext()) {
+                if (processDue(iterator.next(), today)) {
+                    queued++;
+                }
+            }
+        }
+        logger.info("Queued {} checkup reminders for {}", queued, today);
+    }
 
-                // Send Email
-                emailService.sendEmail(
-                        checkup.getPatientEmail(),
-                        "Cure Buddy Checkup Reminder",
-                        "Dear Patient,\nYour " + checkup.getVitalName() +
-                                " checkup is scheduled today at " + checkup.getScheduledDateTime().toLocalTime() + ".\n\nStay Healthy!"
-                );
+    private boolean processDue(CheckupSchedule checkup, LocalDate today) {
+        if (!leaseService.ownsPatient(checkup.getPatientEmail())) {
+            return false;
+        }
+        LocalDateTime occurrence = checkup.nextOccurrenceOnOrAfter(today);
+        boolean dueToday = occurrence != null && occurrence.toLocalDate().equals(today);
+        LocalDateTime next = dueToday ? checkup.nextOccurrenceOnOrAfter(today.plusDays(1)) : occurrence;
 
-                System.out.println("[Reminder] Email sent to " + checkup.getPatientEmail());
-            }
-            // Simulate patient phone number (in real, store it properly in User model)
-            String fakePhoneNumber = "+917339202176"; // Your verified test number
+        // Only the run that moves nextReminderAt on sends, so a rerun or a second node never repeats a reminder
+        Query claim = Query.query(Criteria.where("_id").is(checkup.getId())
+                .and("nextReminderAt").is(checkup.getNextReminderAt()));
+        if (mongoTemplate.updateFirst(claim, new Update().set("nextReminderAt", next), CheckupSchedule.class)
+                .getModifiedCount() == 0 || !dueToday) {
+            return false;
+        }
 
-            twilioService.sendSms(
-                    fakePhoneNumber,
+        String key = "checkup-reminder:" + checkup.getId() + ":" + occurrence;
+        try {
+            outbox.enqueueEmail(
+                    key,
+                    checkup.getPatientEmail(),
+                    "Cure Buddy Checkup Reminder",
+                    "Dear Patient,\nYour " + checkup.getVitalName() +
+                            " checkup is scheduled today at " + occurrence.toLocalTime() + ".\n\nStay Healthy!"
+            );
+            // Patients have no phone number on file yet, so the SMS goes to the configured test number
+            outbox.enqueueSms(
+                    key,
+                    smsRecipient,
                     "Reminder: Your " + checkup.getVitalName() +
-                            " checkup is scheduled today at " + checkup.getScheduledDateTime().toLocalTime()
+                            " checkup is scheduled today at " + occurrence.toLocalTime()
             );
-
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to queue checkup reminder {} for {}: {}", checkup.getId(), checkup.getPatientEmail(), e.getMessage());
+            return false;
         }
+    }
 
+    // Schedules saved before nextReminderAt existed get it computed once; a passed one-off stores an explicit null
+    private void backfillNextReminders(LocalDate today) {
+        Query missing = Query.query(Criteria.where("nextReminderAt").exists(false)).cursorBatchSize(batchSize);
+        int updated = 0;
+        try (Stream<CheckupSchedule> schedules = mongoTemplate.stream(missing, CheckupSchedule.class)) {
+            Iterator<CheckupSchedule> iterator = schedules.iterator();
+            while (iterator.hasNext()) {
+                CheckupSchedule checkup = iterator.next();
+                mongoTemplate.updateFirst(
+                        Query.query(Criteria.where("_id").is(checkup.getId()).and("nextReminderAt").exists(false)),
+                        new Update().set("nextReminderAt", checkup.nextOccurrenceOnOrAfter(today)),
+                        CheckupSchedule.class);
+                updated++;
+            }
+        }
+        if (updated > 0) {
+            logger.info("Computed nextReminderAt for {} existing checkup schedules", updated);
+        }
     }
 }
@@ -0,0 +1,292 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.ExtractionStatus;
+import com.example.curebuddy_backend.model.HealthReport;
+import com.example.curebuddy_backend.repository.HealthReportRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Extracts text from uploaded reports on a bounded worker pool so the upload request
+ * only has to store the file and the PENDING HealthReport.
+ * A worker first claims the report with a conditional update that stamps extractionStartedAt, so with several
+ * replicas only one of them extracts it; a claim older than stale-after-minutes is considered abandoned.
+ * Status changes are written to Mongo and pushed to any SSE subscribers of the report.
+ */
+@Service
+public class ReportExtractionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportExtractionService.class);
+    private static final String PDF_CONTENT_TYPE = "application/pdf";
+
+    private final HealthReportRepository repo;
+    private final MongoTemplate mongoTemplate;
+    private final PdfTextExtractor pdfTextExtractor;
+    private final ReportStorageService storageService;
+    private final ReportTextService textService;
+    private final ThreadPoolExecutor executor;
+
+    // Report ids queued or running on this node, so the sweep never submits the same report twice
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${report.upload-dir:uploads/}")
+    private String uploadDir;
+
+    @Value("${report.extraction.stale-after-minutes:5}")
+    private long staleAfterMinutes;
+
+    @Value("${report.extraction.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    public ReportExtractionService(HealthReportRepository repo,
+                                   MongoTemplate mongoTemplate,
+                                   PdfTextExtractor pdfTextExtractor,
+                                   ReportStorageService storageService,
+                                   ReportTextService textService,
+                                   @Value("${report.extraction.threads:2}") int threads,
+                                   @Value("${report.extraction.queue-capacity:100}") int queueCapacity) {
+        this.repo = repo;
+        this.mongoTemplate = mongoTemplate;
+        this.pdfTextExtractor = pdfTextExtractor;
+        this.storageService = storageService;
+        this.textService = textService;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                threads, threads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "report-extraction-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public boolean requiresExtraction(String fileType) {
+        return fileType != null && fileType.equalsIgnoreCase(PDF_CONTENT_TYPE);
+    }
+
+    public Path resolveUploadPath(HealthReport report) {
+        if (report.getStoragePath() != null) {
+            return storageService.resolve(report.getStoragePath());
+        }
+        return Paths.get(uploadDir, report.getFileName());
+    }
+
+    /**
+     * Points the report at text already extracted from an earlier upload with the same content hash.
+     * @return true if the report is now COMPLETED and does not need to be submitted.
+     */
+    public boolean reuseExistingExtraction(HealthReport report) {
+        String key = report.getContentHash();
+        if (key == null) {
+            return false;
+        }
+
+        if (!textService.exists(key)) {
+            // Uploads from before the text store keep their text inline on the report
+            Optional<HealthReport> legacy = repo.findFirstByContentHashAndExtractionStatus(key, ExtractionStatus.COMPLETED);
+            if (legacy.isEmpty() || legacy.get().getExtractedText() == null) {
+                return false;
+            }
+            textService.save(key, legacy.get().getExtractedText());
+        }
+
+        report.setTextRef(key);
+        report.setExtractionStatus(ExtractionStatus.COMPLETED);
+        report.setExtractedAt(LocalDateTime.now());
+        logger.info("Reusing extracted text {} for identical upload {}", key, report.getFileName());
+        return true;
+    }
+
+    /**
+     * Queues text extraction for a saved PENDING report.
+     * @return false if the worker queue is full; the report stays PENDING and is retried by the sweep.
+     */
+    public boolean submit(HealthReport report) {
+        String reportId = report.getId();
+        if (!inFlight.add(reportId)) {
+            return true;
+        }
+        Path file = resolveUploadPath(report);
+        String textKey = textService.textKeyFor(report);
+        try {
+            executor.execute(() -> extract(reportId, file, textKey));
+            return true;
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(reportId);
+            logger.warn("Extraction queue is full, report {} stays PENDING until the next sweep.", reportId);
+            return false;
+        }
+    }
+
+    private void extract(String reportId, Path file, String textKey) {
+        String claim = UUID.randomUUID().toString();
+        try {
+            if (!claim(reportId, claim)) {
+                logger.debug("Report {} is already being extracted elsewhere or is done", reportId);
+                return;
+            }
+            publish(reportId, ExtractionStatus.PROCESSING);
+
+            String text = pdfTextExtractor.extractText(file);
+            textService.save(textKey, text);
+
+            updateStatus(reportId, claim, new Update()
+                    .set("extractionStatus", ExtractionStatus.COMPLETED)
+                    .set("textRef", textKey)
+                    .set("extractedAt", LocalDateTime.now())
+                    .unset("extractionError"), ExtractionStatus.COMPLETED);
+            logger.info("Extracted {} characters from report {}", text.length(), reportId);
+        } catch (Exception e) {
+            logger.error("Text extraction failed for report {}: {}", reportId, e.getMessage(), e);
+            updateStatus(reportId, claim, new Update()
+                    .set("extractionStatus", ExtractionStatus.FAILED)
+                    .set("extractionError", e.getMessage())
+                    .set("extractedAt", LocalDateTime.now()), ExtractionStatus.FAILED);
+        } finally {
+            inFlight.remove(reportId);
+        }
+    }
+
+    // Takes a PENDING report, or a PROCESSING one whose claim has gone stale; fails if another worker holds it
+    private boolean claim(String reportId, String claim) {
+        LocalDateTime now = LocalDateTime.now();
+        Query claimable = Query.query(Criteria.where("_id").is(reportId)
+                .orOperator(Criteria.where("extractionStatus").is(ExtractionStatus.PENDING), staleProcessing(now)));
+        Update update = new Update()
+                .set("extractionStatus", ExtractionStatus.PROCESSING)
+                .set("extractionStartedAt", now)
+                .set("extractionClaim", claim);
+        return mongoTemplate.updateFirst(claimable, update, HealthReport.class).getModifiedCount() > 0;
+    }
+
+    // PROCESSING since before the cutoff; claims from before extractionStartedAt existed are aged by uploadedAt
+    private Criteria staleProcessing(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusMinutes(staleAfterMinutes);
+        return new Criteria().andOperator(
+                Criteria.where("extractionStatus").is(ExtractionStatus.PROCESSING),
+                new Criteria().orOperator(
+                        Criteria.where("extractionStartedAt").lt(cutoff),
+                        new Criteria().andOperator(
+                                Criteria.where("extractionStartedAt").exists(false),
+                                Criteria.where("uploadedAt").lt(cutoff))));
+    }
+
+    // Field-level update so a doctor's remarks saved meanwhile are not overwritten by the worker;
+    // only applies while this worker still holds the claim
+    private void updateStatus(String reportId, String claim, Update update, ExtractionStatus status) {
+        long updated = mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(reportId).and("extractionClaim").is(claim)),
+                update.unset("extractionClaim"), HealthReport.class).getModifiedCount();
+        if (updated == 0) {
+            logger.warn("Extraction claim on report {} was taken over by another worker, result discarded", reportId);
+            return;
+        }
+        publish(reportId, status);
+    }
+
+    public SseEmitter subscribe(HealthReport report) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        String reportId = report.getId();
+
+        if (report.isExtractionFinished()) {
+            sendAndComplete(emitter, report.getExtractionStatus() == null ? ExtractionStatus.COMPLETED : report.getExtractionStatus());
+            return emitter;
+        }
+
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(reportId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        Runnable remove = () -> emitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+
+        // The worker may have finished between the caller's read and the registration above
+        repo.findById(reportId)
+                .filter(HealthReport::isExtractionFinished)
+                .ifPresent(latest -> publish(reportId, latest.getExtractionStatus() == null
+                        ? ExtractionStatus.COMPLETED : latest.getExtractionStatus()));
+        return emitter;
+    }
+
+    private void publish(String reportId, ExtractionStatus status) {
+        boolean finished = status == ExtractionStatus.COMPLETED || status == ExtractionStatus.FAILED;
+        List<SseEmitter> emitters = finished ? subscribers.remove(reportId) : subscribers.get(reportId);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            if (finished) {
+                sendAndComplete(emitter, status);
+            } else {
+                try {
+                    emitter.send(SseEmitter.event().name("status").data(status.name()));
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    private void sendAndComplete(SseEmitter emitter, ExtractionStatus status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status.name()));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    // Picks up reports left PENDING by a full queue or PROCESSING by a node that went away
+    @Scheduled(fixedDelayString = "${report.extraction.sweep-interval-ms:60000}",
+            initialDelayString = "${report.extraction.sweep-interval-ms:60000}")
+    public void requeueStaleReports() {
+        LocalDateTime now = LocalDateTime.now();
+        // Served by the extraction_status_uploaded index: both branches start with an equality on extractionStatus
+        Query staleQuery = Query.query(new Criteria().orOperator(
+                Criteria.where("extractionStatus").is(ExtractionStatus.PENDING)
+                        .and("uploadedAt").lt(now.minusMinutes(staleAfterMinutes)),
+                staleProcessing(now)));
+        List<HealthReport> stale = mongoTemplate.find(staleQuery, HealthReport.class);
+
+        for (HealthReport report : stale) {
+            if (!inFlight.contains(report.getId())) {
+                logger.info("Re-queueing stale extraction for report {} ({})", report.getId(), report.getExtractionStatus());
+                submit(report);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.curebuddy_backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed storage for uploaded reports.
+ * Files are keyed by the SHA-256 of their bytes (computed while the upload is written) and sharded as
+ * {@code <upload-dir>/ab/cd/<sha256>.<ext>}, so identical uploads share one file and different
+ * patients' {@code report.pdf} never overwrite each other.
+ * Uploads are written under report.upload.temp-dir first, which must stay outside the upload dir:
+ * that one is served anonymously under /uploads/**, and half-written files must not be.
+ */
+@Service
+public class ReportStorageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportStorageService.class);
+
+    private final Path uploadRoot;
+    private final Path tempRoot;
+    private final int bufferSize;
+    private final long maxUploadBytes;
+
+    public ReportStorageService(@Value("${report.upload-dir:uploads/}") String uploadDir,
+                                @Value("${report.upload.temp-dir:upload-tmp/}") String tempDir,
+                                @Value("${report.upload.buffer-size:65536}") int bufferSize,
+                                @Value("${report.upload.max-bytes:52428800}") long maxUploadBytes) {
+        this.uploadRoot = Paths.get(uploadDir);
+        this.tempRoot = Paths.get(tempDir);
+        if (tempRoot.toAbsolutePath().normalize().startsWith(uploadRoot.toAbsolutePath().normalize())) {
+            throw new IllegalStateException("report.upload.temp-dir must not be inside the publicly served report.upload-dir");
+        }
+        this.bufferSize = bufferSize;
+        this.maxUploadBytes = maxUploadBytes;
+    }
+
+    public record StoredFile(String contentHash, String storagePath, long size, boolean alreadyStored) {
+    }
+
+    /**
+     * Thrown when an upload exceeds report.upload.max-bytes; the partial file is discarded.
+     */
+    public static class UploadTooLargeException extends IOException {
+        public UploadTooLargeException(long maxBytes) {
+            super("Upload exceeds the maximum size of " + maxBytes + " bytes");
+        }
+    }
+
+    public StoredFile store(InputStream content, String originalFileName) throws IOException {
+        return store(Channels.newChannel(content), originalFileName);
+    }
+
+    /**
+     * Streams the body through one fixed-size buffer: each chunk is hashed, size-checked and written
+     * in the same pass, so memory use per upload stays at report.upload.buffer-size whatever the file size.
+     */
+    public StoredFile store(ReadableByteChannel content, String originalFileName) throws IOException {
+        Path tempDir = Files.createDirectories(tempRoot);
+        Path tempFile = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest digest = newSha256();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(bufferSize);
+            long size = 0;
+            try (FileChannel out = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (content.read(buffer) != -1) {
+                    buffer.flip();
+                    size += buffer.remaining();
+                    if (size > maxUploadBytes) {
+                        throw new UploadTooLargeException(maxUploadBytes);
+                    }
+                    digest.update(buffer.duplicate());
+                    while (buffer.hasRemaining()) {
+                        out.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                out.force(false);
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+            return moveIntoPlace(tempFile, hash, originalFileName, size);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public long getMaxUploadBytes() {
+        return maxUploadBytes;
+    }
+
+    public Path resolve(String storagePath) {
+        return uploadRoot.resolve(storagePath);
+    }
+
+    private StoredFile moveIntoPlace(Path tempFile, String hash, String originalFileName, long size) throws IOException {
+        String storagePath = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + extensionOf(originalFileName);
+        Path target = uploadRoot.resolve(storagePath);
+
+        if (Files.exists(target)) {
+            logger.info("Upload {} matches stored content {}, reusing it", originalFileName, hash);
+            return new StoredFile(hash, storagePath, size, true);
+        }
+
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile, target);
+        } catch (FileAlreadyExistsException e) {
+            // Same bytes uploaded concurrently; the other request already stored them
+            return new StoredFile(hash, storagePath, size, true);
+        }
+        return new StoredFile(hash, storagePath, size, false);
+    }
+
+    private static String extensionOf(String fileName) {
+        String extension = StringUtils.getFilenameExtension(fileName);
+        if (extension == null || !extension.matches("[A-Za-z0-9]{1,10}")) {
+            return "";
+        }
+        return "." + extension.toLowerCase();
+    }
+
+    static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.HealthReport;
+import com.example.curebuddy_backend.model.ReportText;
+import com.example.curebuddy_backend.repository.ReportTextRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Stores extracted report text compressed in the report_texts collection and loads it on demand.
+ * Only report analysis needs the text, so health_reports documents carry just a textRef.
+ */
+@Service
+public class ReportTextService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportTextService.class);
+    private static final String CODEC = "deflate";
+
+    private final ReportTextRepository textRepo;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${report.text.compression-level:6}")
+    private int compressionLevel;
+
+    public ReportTextService(ReportTextRepository textRepo, MongoTemplate mongoTemplate) {
+        this.textRepo = textRepo;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    // Key for a report's text: the content hash when known, so identical uploads share one entry
+    public String textKeyFor(HealthReport report) {
+        return report.getContentHash() != null ? report.getContentHash() : report.getId();
+    }
+
+    public boolean exists(String key) {
+        return key != null && textRepo.existsById(key);
+    }
+
+    public void save(String key, String text) {
+        byte[] raw = text.getBytes(StandardCharsets.UTF_8);
+
+        ReportText entry = new ReportText();
+        entry.setId(key);
+        entry.setContent(deflate(raw));
+        entry.setRawLength(raw.length);
+        entry.setCodec(CODEC);
+        entry.setCreatedAt(LocalDateTime.now());
+        textRepo.save(entry);
+        logger.debug("Stored report text {}: {} bytes -> {} bytes", key, raw.length, entry.getContent().length);
+    }
+
+    /**
+     * Returns the report's extracted text, or "" if there is none.
+     * Reports written before the text store still carry the text inline; it is moved out on first read.
+     */
+    public String loadText(HealthReport report) {
+        if (report.getTextRef() != null) {
+            return textRepo.findById(report.getTextRef())
+                    .map(this::decode)
+                    .orElseGet(() -> {
+                        logger.warn("Report {} references missing text {}", report.getId(), report.getTextRef());
+                        return "";
+                    });
+        }
+
+        String inline = report.getExtractedText();
+        if (inline == null) {
+            return "";
+        }
+        migrateInlineText(report, inline);
+        return inline;
+    }
+
+    private void migrateInlineText(HealthReport report, String inline) {
+        try {
+            String key = textKeyFor(report);
+            if (!exists(key)) {
+                save(key, inline);
+            }
+            mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(report.getId())),
+                    new Update().set("textRef", key).unset("extractedText"), HealthReport.class);
+            report.setTextRef(key);
+            report.setExtractedText(null);
+        } catch (Exception e) {
+            // The inline copy is still there, so this is retried on the next read
+            logger.warn("Could not move inline text of report {} to the text store: {}", report.getId(), e.getMessage());
+        }
+    }
+
+    private String decode(ReportText entry) {
+        if (!CODEC.equals(entry.getCodec())) {
+            throw new IllegalStateException("Unsupported report text codec: " + entry.getCodec());
+        }
+        return new String(inflate(entry.getContent(), entry.getRawLength()), StandardCharsets.UTF_8);
+    }
+
+    private byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] compressed, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] raw = new byte[rawLength];
+            int offset = 0;
+            while (offset < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, offset, rawLength - offset);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += count;
+            }
+            if (offset != rawLength) {
+                throw new IllegalStateException("Report text is truncated: expected " + rawLength + " bytes, got " + offset);
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Report text is corrupt: " + e.getMessage(), e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.curebuddy_backend.service;
+
+/**
+ * Sends one SMS through a provider. Selected with twilio.transport: "twilio" (default) or "fake" for offline load tests.
+ */
+public interface SmsTransport {
+
+    /**
+     * @return the provider's id for the accepted message.
+     */
+    String send(String to, String from, String body) throws Exception;
+}
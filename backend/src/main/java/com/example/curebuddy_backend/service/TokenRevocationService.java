@@ -0,0 +1,109 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.TokenRevocation;
+import com.example.curebuddy_backend.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Revocation list for stateless JWT authentication. Deleting a user, changing their password, or changing their
+ * role or license verification records a revokedAt time in token_revocations; any token of that user issued
+ * at or before it is rejected.
+ * The list is held in memory as a Bloom filter in front of an exact map, so the common case of a user with
+ * no revocation is a few bit lookups. Other replicas pick up new entries on the next refresh.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private record Snapshot(BloomFilter filter, Map<String, Instant> revokedAt) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final JwtAuthenticationCache authenticationCache;
+    private final int expectedEntries;
+
+    private volatile Snapshot snapshot;
+
+    public TokenRevocationService(MongoTemplate mongoTemplate,
+                                  JwtAuthenticationCache authenticationCache,
+                                  @Value("${security.jwt.revocation.expected-entries:10000}") int expectedEntries) {
+        this.mongoTemplate = mongoTemplate;
+        this.authenticationCache = authenticationCache;
+        this.expectedEntries = expectedEntries;
+        this.snapshot = build(Map.of());
+    }
+
+    public void revokeUser(String email) {
+        String key = email.toLowerCase();
+        Instant now = Instant.now();
+        mongoTemplate.upsert(Query.query(Criteria.where("_id").is(key)),
+                new Update().max("revokedAt", now), TokenRevocation.class);
+        synchronized (this) {
+            Map<String, Instant> revoked = new HashMap<>(snapshot.revokedAt());
+            revoked.merge(key, now, (a, b) -> a.isAfter(b) ? a : b);
+            snapshot = build(revoked);
+        }
+        authenticationCache.evictUser(email);
+    }
+
+    public boolean isRevoked(String email, Date issuedAt) {
+        String key = email.toLowerCase();
+        Snapshot current = snapshot;
+        if (!current.filter().mightContain(key)) {
+            return false;
+        }
+        Instant revokedAt = current.revokedAt().get(key);
+        // iat only has second precision: a token from the same second as the revocation is treated as revoked
+        return revokedAt != null && (issuedAt == null || !issuedAt.toInstant().isAfter(revokedAt));
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.refresh-interval-ms:30000}", initialDelay = 0)
+    public void refresh() {
+        try {
+            Map<String, Instant> revoked = new HashMap<>();
+            for (TokenRevocation revocation : mongoTemplate.findAll(TokenRevocation.class)) {
+                revoked.put(revocation.getEmail(), revocation.getRevokedAt());
+            }
+            Instant cutoff = Instant.now().minusMillis(JwtService.TOKEN_VALIDITY_MS);
+            Map<String, Instant> previous;
+            synchronized (this) {
+                previous = snapshot.revokedAt();
+                // Keep recent local revocations the read may have missed; older ones can no longer match a live token
+                previous.forEach((email, at) -> {
+                    if (at.isAfter(cutoff)) {
+                        revoked.merge(email, at, (a, b) -> a.isAfter(b) ? a : b);
+                    }
+                });
+                snapshot = build(revoked);
+            }
+            // Tokens cached here before another replica revoked them must not outlive this refresh
+            revoked.forEach((email, at) -> {
+                if (!at.equals(previous.get(email))) {
+                    authenticationCache.evictUser(email);
+                }
+            });
+        } catch (Exception e) {
+            logger.warn("Could not refresh token revocations: {}", e.getMessage());
+        }
+    }
+
+    private Snapshot build(Map<String, Instant> revoked) {
+        BloomFilter filter = new BloomFilter(Math.max(expectedEntries, revoked.size()), 0.01);
+        revoked.keySet().forEach(filter::add);
+        return new Snapshot(filter, Map.copyOf(revoked));
+    }
+}
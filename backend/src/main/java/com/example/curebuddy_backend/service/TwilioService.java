@@ -1,31 +1,144 @@
 package com.example.curebuddy_backend.service;
 
-import com.twilio.Twilio;
-import com.twilio.rest.api.v2010.account.Message;
+import com.example.curebuddy_backend.util.TokenBucket;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+
+/**
+ * Sends SMS through the configured SmsTransport, never faster than twilio.rate-limit.per-second.
+ * sendSms blocks the caller; sendSmsAsync and sendBulk run on a bounded pool and return futures.
+ */
 @Service
 public class TwilioService {
 
-    @Value("${twilio.accountSid}")
-    private String accountSid;
+    private static final Logger logger = LoggerFactory.getLogger(TwilioService.class);
 
-    @Value("${twilio.authToken}")
-    private String authToken;
+    private final SmsTransport transport;
+    private final double messagesPerSecond;
+    private final TokenBucket rateLimiter;
+    private final ThreadPoolExecutor asyncSenders;
 
     @Value("${twilio.phoneNumber}")
     private String fromPhoneNumber;
 
+    public record SmsRequest(String to, String body) {
+    }
+
+    public record SmsResult(String to, String sid, String error) {
+        public boolean sent() {
+            return error == null;
+        }
+    }
+
+    public TwilioService(SmsTransport transport,
+                         @Value("${twilio.rate-limit.per-second:1}") double messagesPerSecond,
+                         @Value("${twilio.rate-limit.burst:1}") int burst,
+                         @Value("${twilio.async.threads:4}") int asyncThreads,
+                         @Value("${twilio.async.queue-capacity:1000}") int queueCapacity) {
+        this.transport = transport;
+        this.messagesPerSecond = messagesPerSecond;
+        this.rateLimiter = new TokenBucket(messagesPerSecond, burst);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.asyncSenders = new ThreadPoolExecutor(
+                asyncThreads, asyncThreads,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sms-sender-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public double getMessagesPerSecond() {
+        return messagesPerSecond;
+    }
+
     public void sendSms(String to, String body) {
-        Twilio.init(accountSid, authToken);
+        String sid = send(to, body, () -> true);
+        logger.info("[Twilio SMS] Message SID: {}", sid);
+    }
 
-        Message message = Message.creator(
-                new com.twilio.type.PhoneNumber(to),
-                new com.twilio.type.PhoneNumber(fromPhoneNumber),
-                body
-        ).create();
+    /**
+     * @return a future completed with the message SID, or exceptionally if the send fails or the pool is full.
+     */
+    public CompletableFuture<String> sendSmsAsync(String to, String body) {
+        return sendSmsAsync(to, body, () -> true);
+    }
+
+    private CompletableFuture<String> sendSmsAsync(String to, String body, BooleanSupplier stillWanted) {
+        try {
+            return CompletableFuture.supplyAsync(() -> send(to, body, stillWanted), asyncSenders);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Sends every message on the async pool under the shared rate limit.
+     * @return a future of one result per request, in request order; individual failures do not fail the future.
+     */
+    public CompletableFuture<List<SmsResult>> sendBulk(List<SmsRequest> requests) {
+        return sendBulk(requests, index -> true);
+    }
+
+    /**
+     * As sendBulk(requests), but once a request holds its rate-limit permit, beforeSend is asked (with the request's
+     * index) whether it should still go out; a request it rejects is not sent and fails with "Skipped before sending".
+     */
+    public CompletableFuture<List<SmsResult>> sendBulk(List<SmsRequest> requests, IntPredicate beforeSend) {
+        List<CompletableFuture<SmsResult>> sends = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            SmsRequest request = requests.get(i);
+            int index = i;
+            sends.add(sendSmsAsync(request.to(), request.body(), () -> beforeSend.test(index)).handle((sid, error) -> error == null
+                    ? new SmsResult(request.to(), sid, null)
+                    : new SmsResult(request.to(), null, describe(error))));
+        }
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> sends.stream().map(CompletableFuture::join).toList());
+    }
+
+    private String send(String to, String body, BooleanSupplier stillWanted) {
+        try {
+            rateLimiter.acquire();
+            if (!stillWanted.getAsBoolean()) {
+                throw new IllegalStateException("Skipped before sending");
+            }
+            return transport.send(to, fromPhoneNumber, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to send SMS", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to send SMS: " + e.getMessage(), e);
+        }
+    }
+
+    private static String describe(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
 
-        System.out.println("[Twilio SMS] Message SID: " + message.getSid());
+    @PreDestroy
+    public void shutdown() {
+        asyncSenders.shutdown();
     }
 }
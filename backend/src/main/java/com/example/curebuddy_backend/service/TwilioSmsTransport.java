@@ -0,0 +1,55 @@
+package com.example.curebuddy_backend.service;
+
+import com.twilio.http.NetworkHttpClient;
+import com.twilio.http.TwilioRestClient;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// One TwilioRestClient for the whole application, on a pooled keep-alive HTTP client, instead of Twilio.init per message
+@Component
+@ConditionalOnProperty(name = "twilio.transport", havingValue = "twilio", matchIfMissing = true)
+public class TwilioSmsTransport implements SmsTransport {
+
+    private final TwilioRestClient client;
+
+    public TwilioSmsTransport(@Value("${twilio.accountSid}") String accountSid,
+                              @Value("${twilio.authToken}") String authToken,
+                              @Value("${twilio.http.max-connections:20}") int maxConnections,
+                              @Value("${twilio.http.connect-timeout-ms:5000}") int connectTimeoutMs,
+                              @Value("${twilio.http.read-timeout-ms:15000}") int readTimeoutMs) {
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager(60, TimeUnit.SECONDS);
+        connections.setMaxTotal(maxConnections);
+        // Every request goes to api.twilio.com, so the whole pool is one route
+        connections.setDefaultMaxPerRoute(maxConnections);
+        connections.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setConnectionRequestTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .build();
+
+        HttpClientBuilder httpClient = HttpClientBuilder.create()
+                .setConnectionManager(connections)
+                .setDefaultRequestConfig(requestConfig)
+                .useSystemProperties();
+
+        this.client = new TwilioRestClient.Builder(accountSid, authToken)
+                .httpClient(new NetworkHttpClient(httpClient))
+                .build();
+    }
+
+    @Override
+    public String send(String to, String from, String body) {
+        Message message = Message.creator(new PhoneNumber(to), new PhoneNumber(from), body).create(client);
+        return message.getSid();
+    }
+}
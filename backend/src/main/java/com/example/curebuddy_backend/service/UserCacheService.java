@@ -0,0 +1,75 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.User;
+import com.example.curebuddy_backend.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Shared, size-bounded cache of users by email for the read paths that run on nearly every request:
+ * authentication, role checks and profile reads. Writes go through save/evict here so this replica never
+ * serves a stale user; other replicas see a change once user.cache.ttl-ms has passed.
+ * Cached users are shared instances and must not be modified; write paths load a fresh copy from UserRepository.
+ * A save that changes a user's role or license verification revokes their existing tokens, which carry the old role.
+ * Hit and miss counts are published as cache.gets{cache=users}.
+ */
+@Service
+public class UserCacheService {
+
+    private final UserRepository repo;
+    private final TokenRevocationService revocationService;
+    private final Cache<String, User> cache;
+
+    public UserCacheService(UserRepository repo,
+                            TokenRevocationService revocationService,
+                            MeterRegistry meterRegistry,
+                            @Value("${user.cache.max-size:10000}") long maxSize,
+                            @Value("${user.cache.ttl-ms:60000}") long ttlMs) {
+        this.repo = repo;
+        this.revocationService = revocationService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+
+    // Unknown emails are not cached, so a user who registers afterwards is found straight away
+    public Optional<User> findByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.get(email, key -> repo.findByEmail(key).orElse(null)));
+    }
+
+    public User save(User user) {
+        User previous = user.getId() == null ? null : repo.findById(user.getId()).orElse(null);
+        User saved;
+        try {
+            saved = repo.save(user);
+        } finally {
+            evict(user.getEmail());
+        }
+        if (previous != null && (!Objects.equals(previous.getRole(), user.getRole())
+                || previous.isLicenseVerified() != user.isLicenseVerified())) {
+            // Stateless authentication takes the role from the token, so tokens issued before the change must go
+            revocationService.revokeUser(previous.getEmail());
+        }
+        return saved;
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+}
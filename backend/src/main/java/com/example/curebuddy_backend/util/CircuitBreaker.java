@@ -0,0 +1,73 @@
+package com.example.curebuddy_backend.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-safe consecutive-failure circuit breaker. After failureThreshold failures in a row the circuit opens
+ * and calls are refused until openMillis have passed; then a single probe call is let through, which either
+ * closes the circuit again or reopens it for another openMillis.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+    }
+
+    /**
+     * @return true if a call may go ahead; in the half-open state only the first caller gets to probe.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt >= openNanos) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false; // A probe is already in flight
+        }
+    }
+
+    /**
+     * True while calls are being refused, without claiming the probe once the open period has passed.
+     */
+    public synchronized boolean isRejecting() {
+        return state == State.HALF_OPEN || (state == State.OPEN && System.nanoTime() - openedAt < openNanos);
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        state = State.CLOSED;
+    }
+
+    /**
+     * @return true if this failure opened the circuit.
+     */
+    public synchronized boolean onFailure() {
+        consecutiveFailures++;
+        if (state == State.OPEN || (state == State.CLOSED && consecutiveFailures < failureThreshold)) {
+            return false;
+        }
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        return true;
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+}
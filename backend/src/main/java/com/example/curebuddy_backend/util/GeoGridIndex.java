@@ -0,0 +1,101 @@
+package com.example.curebuddy_backend.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable uniform-grid spatial index over points, kept in primitive arrays sorted by grid cell so a
+ * radius query only binary-searches the cells overlapping the search box and scans them sequentially.
+ * Points are identified by their position in the arrays passed to the constructor.
+ */
+public final class GeoGridIndex {
+
+    public interface Visitor {
+        void visit(int id, double distanceMeters);
+    }
+
+    private final double cellDegrees;
+    private final long columns;
+    private final double[] lats;
+    private final double[] lons;
+    private final int[] ids;
+    private final long[] cellKeys; // Cell of each point, in the same sorted order as lats/lons/ids
+
+    public GeoGridIndex(double[] lat, double[] lon, double cellDegrees) {
+        if (lat.length != lon.length) {
+            throw new IllegalArgumentException("lat and lon must have the same length");
+        }
+        this.cellDegrees = cellDegrees;
+        this.columns = (long) Math.ceil(360 / cellDegrees);
+        int n = lat.length;
+
+        // Sort by (cell, id) packed into one long: cell keys stay far below 2^31 for any sane cell size
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = (cellOf(lat[i], lon[i]) << 32) | i;
+        }
+        Arrays.sort(packed);
+
+        this.lats = new double[n];
+        this.lons = new double[n];
+        this.ids = new int[n];
+        this.cellKeys = new long[n];
+        for (int i = 0; i < n; i++) {
+            int id = (int) packed[i];
+            ids[i] = id;
+            lats[i] = lat[id];
+            lons[i] = lon[id];
+            cellKeys[i] = packed[i] >>> 32;
+        }
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public void visitWithin(double lat, double lon, double radiusMeters, Visitor visitor) {
+        double dLat = GeoUtils.metersToLatDegrees(radiusMeters);
+        double dLon = GeoUtils.metersToLonDegrees(radiusMeters, lat);
+        long rowMin = row(lat - dLat);
+        long rowMax = row(lat + dLat);
+        long colMin = column(lon - dLon);
+        long colMax = column(lon + dLon);
+
+        for (long row = rowMin; row <= rowMax; row++) {
+            // Cells of one row are contiguous keys, so each row is a single sorted range
+            long first = row * columns + colMin;
+            long last = row * columns + colMax;
+            for (int i = lowerBound(first); i < cellKeys.length && cellKeys[i] <= last; i++) {
+                double distance = GeoUtils.haversineMeters(lat, lon, lats[i], lons[i]);
+                if (distance <= radiusMeters) {
+                    visitor.visit(ids[i], distance);
+                }
+            }
+        }
+    }
+
+    private long cellOf(double lat, double lon) {
+        return row(lat) * columns + column(lon);
+    }
+
+    private long row(double lat) {
+        return (long) Math.floor((Math.max(-90, Math.min(90, lat)) + 90) / cellDegrees);
+    }
+
+    private long column(double lon) {
+        return Math.min(columns - 1, (long) Math.floor((Math.max(-180, Math.min(180, lon)) + 180) / cellDegrees));
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = cellKeys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cellKeys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.curebuddy_backend.util;
+
+/**
+ * Distance helpers for WGS84 coordinates.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private GeoUtils() {
+    }
+
+    // Great-circle distance; accurate to well under 1% at the distances the locators search
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Degrees of latitude spanning the given distance, on the same sphere as haversineMeters
+    public static double metersToLatDegrees(double meters) {
+        return Math.toDegrees(meters / EARTH_RADIUS_METERS);
+    }
+
+    // Half-width in longitude of a circle of this radius around a point at this latitude, on the same sphere as
+    // haversineMeters, so a bounding box built from the two never cuts off a point the haversine check accepts
+    public static double metersToLonDegrees(double meters, double lat) {
+        double sinAngular = Math.sin(Math.min(Math.PI / 2, meters / EARTH_RADIUS_METERS));
+        double cosLat = Math.cos(Math.toRadians(lat));
+        if (sinAngular >= cosLat) {
+            return 180; // The circle reaches a pole
+        }
+        return Math.toDegrees(Math.asin(sinAngular / cosLat));
+    }
+}
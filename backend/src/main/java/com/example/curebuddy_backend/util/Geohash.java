@@ -0,0 +1,112 @@
+package com.example.curebuddy_backend.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Standard base-32 geohash encoding, plus the set of tiles covering a search circle.
+ * At precision 5 a tile is roughly 4.9 km x 4.9 km.
+ */
+public final class Geohash {
+
+    private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+    private static final int[] DECODE = new int[128];
+
+    static {
+        Arrays.fill(DECODE, -1);
+        for (int i = 0; i < BASE32.length; i++) {
+            DECODE[BASE32[i]] = i;
+        }
+    }
+
+    private Geohash() {
+    }
+
+    public static String encode(double lat, double lon, int precision) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int value = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (lon >= mid) {
+                    value = (value << 1) | 1;
+                    minLon = mid;
+                } else {
+                    value <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (lat >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32[value]);
+                bit = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * @return {minLat, minLon, maxLat, maxLon} of the tile.
+     */
+    public static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+        for (int i = 0; i < hash.length(); i++) {
+            char c = hash.charAt(i);
+            int value = c < DECODE.length ? DECODE[c] : -1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Invalid geohash: " + hash);
+            }
+            for (int shift = 4; shift >= 0; shift--) {
+                boolean set = ((value >> shift) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) minLon = mid; else maxLon = mid;
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) minLat = mid; else maxLat = mid;
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[]{minLat, minLon, maxLat, maxLon};
+    }
+
+    // Every tile whose area intersects the bounding box of the circle
+    public static List<String> coveringTiles(double lat, double lon, double radiusMeters, int precision) {
+        double dLat = GeoUtils.metersToLatDegrees(radiusMeters);
+        double dLon = GeoUtils.metersToLonDegrees(radiusMeters, lat);
+        double[] cell = bounds(encode(lat, lon, precision));
+        double tileLat = cell[2] - cell[0];
+        double tileLon = cell[3] - cell[1];
+
+        double south = Math.max(-90, lat - dLat);
+        double north = Math.min(90, lat + dLat);
+        double west = Math.max(-180, lon - dLon);
+        double east = Math.min(180, lon + dLon);
+
+        List<String> tiles = new ArrayList<>();
+        // Step through tile centers from the tile containing the south-west corner
+        double[] start = bounds(encode(south, west, precision));
+        for (double tileSouth = start[0]; tileSouth <= north; tileSouth += tileLat) {
+            for (double tileWest = start[1]; tileWest <= east; tileWest += tileLon) {
+                tiles.add(encode(Math.min(89.999999, tileSouth + tileLat / 2), Math.min(179.999999, tileWest + tileLon / 2), precision));
+            }
+        }
+        return tiles;
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.curebuddy_backend.util;
+
+/**
+ * Keeps the k smallest distances seen so far in a bounded max-heap over primitive arrays:
+ * O(log k) per candidate and O(k) memory, however many candidates a search visits.
+ */
+public final class NearestK implements GeoGridIndex.Visitor {
+
+    private final int[] ids;
+    private final double[] distances;
+    private int size;
+
+    public NearestK(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("k must be positive");
+        }
+        this.ids = new int[k];
+        this.distances = new double[k];
+    }
+
+    @Override
+    public void visit(int id, double distanceMeters) {
+        if (size < ids.length) {
+            ids[size] = id;
+            distances[size] = distanceMeters;
+            siftUp(size++);
+        } else if (distanceMeters < distances[0]) {
+            // Closer than the farthest kept: replace the root and restore the heap
+            ids[0] = id;
+            distances[0] = distanceMeters;
+            siftDown(0);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empties the heap into ascending order of distance: after this, id(i) and distance(i) are the i-th nearest.
+     */
+    public void sortAscending() {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    public int id(int i) {
+        return ids[i];
+    }
+
+    public double distance(int i) {
+        return distances[i];
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (distances[parent] >= distances[i]) {
+                return;
+            }
+            swap(parent, i);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        siftDown(i, size);
+    }
+
+    private void siftDown(int i, int limit) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < limit && distances[left] > distances[largest]) {
+                largest = left;
+            }
+            if (right < limit && distances[right] > distances[largest]) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(i, largest);
+            i = largest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double distance = distances[a];
+        distances[a] = distances[b];
+        distances[b] = distance;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.curebuddy_backend.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the call, and everyone arriving while it
+ * is in flight waits for and shares its result, or its exception. Nothing is kept once the call completes,
+ * so this only deduplicates simultaneous work; caching stays with the caller.
+ * A waiter gives up after waitTimeoutMs and takes the caller's fallback instead, the same answer the caller
+ * gives when its own upstream call fails, so a hung leader cannot hold every waiting request thread.
+ * Counts issued, coalesced and timed-out calls as singleflight.calls, tagged with the flight name and the outcome.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long waitTimeoutMs;
+    private final Counter issued;
+    private final Counter coalesced;
+    private final Counter timedOut;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry, long waitTimeoutMs) {
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.issued = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("outcome", "issued")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("singleflight.calls")
+                .tag("name", name)
+                .tag("outcome", "timed-out")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param onWaitTimeout answers a caller that waited waitTimeoutMs for someone else's call, or was interrupted.
+     */
+    public V execute(K key, Supplier<V> call, Supplier<V> onWaitTimeout) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return await(running, onWaitTimeout);
+        }
+
+        issued.increment();
+        try {
+            V result = call.get();
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Removed only after completing, so a late arrival either joins this call or starts a fresh one
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private V await(CompletableFuture<V> running, Supplier<V> onWaitTimeout) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            return onWaitTimeout.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return onWaitTimeout.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
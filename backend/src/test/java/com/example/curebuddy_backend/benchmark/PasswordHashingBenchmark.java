@@ -0,0 +1,81 @@
+package com.example.curebuddy_backend.benchmark;
+
+import com.example.curebuddy_backend.service.PasswordHashingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logins per second for PasswordHashingService.matches at each BCrypt cost. loginOnOneThread is the
+ * logins/sec/core figure used to size security.password.bcrypt-cost; loginOnAllThreads, divided by the core count,
+ * shows how close the hashing pool gets to that per core under a login peak.
+ * Run with:
+ * <pre>
+ * mvn -q test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp target/test-classes:target/classes:$(cat target/test.classpath) \
+ *     com.example.curebuddy_backend.benchmark.PasswordHashingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10", "12"})
+    public int cost;
+
+    private PasswordHashingService hashing;
+    private String storedHash;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Enough waiters for every benchmark thread, so no login is rejected with 503
+        hashing = new PasswordHashingService(cost, 0, 1024, 60_000, 60_000);
+        storedHash = hashing.encode(PASSWORD);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        hashing.shutdown();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean loginOnOneThread() {
+        return hashing.matches(PASSWORD, storedHash);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean loginOnAllThreads() {
+        return hashing.matches(PASSWORD, storedHash);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        System.out.println("Cores: " + Runtime.getRuntime().availableProcessors());
+        new Runner(new OptionsBuilder()
+                .include(PasswordHashingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
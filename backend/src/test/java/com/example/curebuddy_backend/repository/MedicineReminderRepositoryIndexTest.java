@@ -0,0 +1,123 @@
+package com.example.curebuddy_backend.repository;
+
+import com.example.curebuddy_backend.model.MedicineReminder;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A patient's reminder list must be an index range scan already in time order: the documents examined
+ * stay at that patient's own count however many reminders other patients have.
+ */
+@DataMongoTest
+@Testcontainers(disabledWithoutDocker = true)
+class MedicineReminderRepositoryIndexTest {
+
+    private static final String PATIENT = "patient@example.com";
+    private static final int PATIENT_REMINDERS = 12;
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(MedicineReminder.class);
+        // Same index creation as MongoIndexInitializer, which a data slice test does not load
+        IndexOperations indexOps = mongoTemplate.indexOps(MedicineReminder.class);
+        new MongoPersistentEntityIndexResolver(mappingContext).resolveIndexFor(MedicineReminder.class)
+                .forEach(indexOps::ensureIndex);
+
+        List<MedicineReminder> own = new ArrayList<>();
+        for (int i = 0; i < PATIENT_REMINDERS; i++) {
+            own.add(reminder(PATIENT, i));
+        }
+        mongoTemplate.insertAll(own);
+    }
+
+    @Test
+    void findByPatientEmailExaminesOnlyThePatientsReminders() {
+        Document small = explainFindByPatientEmail();
+        insertOtherPatients(200_000);
+        Document large = explainFindByPatientEmail();
+
+        for (Document explain : List.of(small, large)) {
+            Document winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+            List<String> stages = new ArrayList<>();
+            collectStages(winningPlan, stages);
+            assertTrue(stages.contains("IXSCAN"), "expected an index scan, got " + stages);
+            assertFalse(stages.contains("COLLSCAN"), "collection scan in " + stages);
+            assertFalse(stages.contains("SORT"), "in-memory sort in " + stages);
+            assertTrue(winningPlan.toJson().contains("patient_reminder_time"), "wrong index in " + winningPlan.toJson());
+
+            Document stats = explain.get("executionStats", Document.class);
+            assertEquals(PATIENT_REMINDERS, ((Number) stats.get("nReturned")).intValue());
+            assertEquals(PATIENT_REMINDERS, ((Number) stats.get("totalDocsExamined")).intValue());
+        }
+    }
+
+    // The query MedicineReminderRepository.findByPatientEmail(email, Sort.by("reminderTime")) sends
+    private Document explainFindByPatientEmail() {
+        Document find = new Document("find", mongoTemplate.getCollectionName(MedicineReminder.class))
+                .append("filter", new Document("patientEmail", PATIENT))
+                .append("sort", new Document("reminderTime", 1));
+        return mongoTemplate.getDb().runCommand(new Document("explain", find).append("verbosity", "executionStats"));
+    }
+
+    private void insertOtherPatients(int count) {
+        List<MedicineReminder> batch = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batch.add(reminder("other-" + (i % 20_000) + "@example.com", i));
+            if (batch.size() == 10_000) {
+                mongoTemplate.insertAll(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        mongoTemplate.insertAll(batch);
+    }
+
+    private static MedicineReminder reminder(String email, int i) {
+        MedicineReminder reminder = new MedicineReminder();
+        reminder.setPatientEmail(email);
+        reminder.setMedicineName("Medicine " + i);
+        reminder.setReminderTime(LocalTime.of(i % 24, i % 60));
+        return reminder;
+    }
+
+    // Plans nest their stages under inputStage / inputStages (and queryPlan with the slot-based engine)
+    private static void collectStages(Object node, List<String> stages) {
+        if (node instanceof Document document) {
+            Object stage = document.get("stage");
+            if (stage instanceof String name) {
+                stages.add(name);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.curebuddy_backend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * EmailService.sendBatch against an in-process SMTP server: connections are reused between batches after a
+ * NOOP check, a connection the server dropped is replaced mid-batch, and every message gets its own outcome.
+ */
+class EmailServiceBatchTest {
+
+    private StubSmtpServer server;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new StubSmtpServer();
+
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("127.0.0.1");
+        sender.setPort(server.port());
+        sender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "5000");
+        sender.getJavaMailProperties().put("mail.smtp.timeout", "5000");
+
+        emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "mailSender", sender);
+        ReflectionTestUtils.setField(emailService, "fromEmailAddress", "noreply@example.com");
+        // One connection at a time keeps the order of the server's connections predictable
+        ReflectionTestUtils.setField(emailService, "batchConnections", 1);
+        ReflectionTestUtils.setField(emailService, "messagesPerConnection", 100);
+        emailService.startBatchExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        emailService.shutdownBatchSending();
+        server.close();
+    }
+
+    @Test
+    void sendsABatchOverOneConnectionAndReusesItAfterANoop() {
+        List<EmailService.SendResult> first = emailService.sendBatch(messages("a", "b", "c"));
+        List<EmailService.SendResult> second = emailService.sendBatch(messages("d", "e"));
+
+        assertTrue(first.stream().allMatch(EmailService.SendResult::sent));
+        assertTrue(second.stream().allMatch(EmailService.SendResult::sent));
+        assertEquals(List.of("a@example.com", "b@example.com", "c@example.com", "d@example.com", "e@example.com"),
+                server.delivered());
+        assertEquals(1, server.connections());
+        assertTrue(server.noops() >= 1, "the pooled connection should be checked with NOOP before reuse");
+    }
+
+    @Test
+    void replacesAConnectionTheServerTimedOutWhileIdle() {
+        emailService.sendBatch(messages("a"));
+        server.dropOpenConnections();
+
+        List<EmailService.SendResult> results = emailService.sendBatch(messages("b", "c"));
+
+        assertTrue(results.stream().allMatch(EmailService.SendResult::sent));
+        assertEquals(List.of("a@example.com", "b@example.com", "c@example.com"), server.delivered());
+        assertEquals(2, server.connections());
+    }
+
+    @Test
+    void reconnectsWhenTheServerDropsTheConnectionMidBatch() {
+        server.dropFirstConnectionAfter(2);
+
+        List<EmailService.SendResult> results = emailService.sendBatch(messages("a", "b", "c", "d", "e"));
+
+        assertEquals(5, results.size());
+        assertEquals(List.of(true, true, false, true, true), results.stream().map(EmailService.SendResult::sent).toList());
+        assertNotNull(results.get(2).error());
+        assertEquals("c@example.com", results.get(2).message().getTo()[0]);
+        assertEquals(List.of("a@example.com", "b@example.com", "d@example.com", "e@example.com"), server.delivered());
+        assertEquals(2, server.connections());
+    }
+
+    @Test
+    void aRejectedRecipientFailsOnlyItsOwnMessage() {
+        List<EmailService.SendResult> results = emailService.sendBatch(messages("a", "bounce", "c"));
+
+        assertTrue(results.get(0).sent());
+        assertFalse(results.get(1).sent());
+        assertNotNull(results.get(1).error());
+        assertTrue(results.get(2).sent());
+        assertEquals(List.of("a@example.com", "c@example.com"), server.delivered());
+        assertEquals(1, server.connections());
+    }
+
+    @Test
+    void failsEveryMessageWhenNoConnectionCanBeOpened() {
+        server.close();
+
+        List<EmailService.SendResult> results = emailService.sendBatch(messages("a", "b"));
+
+        assertEquals(2, results.size());
+        assertTrue(results.stream().noneMatch(EmailService.SendResult::sent));
+    }
+
+    private static List<SimpleMailMessage> messages(String... recipients) {
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        for (String recipient : recipients) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(recipient + "@example.com");
+            message.setSubject("Reminder for " + recipient);
+            message.setText("Take your medicine.");
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    /**
+     * Just enough SMTP for Jakarta Mail: no auth or TLS, RCPT to bounce@ is refused with 550,
+     * and the first connection can be made to hang up after a given number of messages.
+     */
+    private static class StubSmtpServer {
+
+        private final ServerSocket serverSocket;
+        private final List<Socket> openSockets = new CopyOnWriteArrayList<>();
+        private final List<String> delivered = new CopyOnWriteArrayList<>();
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger noops = new AtomicInteger();
+        private volatile int dropFirstConnectionAfter = -1;
+
+        StubSmtpServer() throws IOException {
+            serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+            Thread acceptor = new Thread(this::acceptLoop, "stub-smtp-accept");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int port() {
+            return serverSocket.getLocalPort();
+        }
+
+        List<String> delivered() {
+            return List.copyOf(delivered);
+        }
+
+        int connections() {
+            return connections.get();
+        }
+
+        int noops() {
+            return noops.get();
+        }
+
+        void dropFirstConnectionAfter(int messages) {
+            dropFirstConnectionAfter = messages;
+        }
+
+        // What a server's idle timeout does to pooled connections
+        void dropOpenConnections() {
+            for (Socket socket : openSockets) {
+                closeQuietly(socket);
+            }
+        }
+
+        void close() {
+            closeQuietly(serverSocket);
+            dropOpenConnections();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    int connection = connections.incrementAndGet();
+                    openSockets.add(socket);
+                    Thread handler = new Thread(() -> serve(socket, connection), "stub-smtp-" + connection);
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    return; // Closed
+                }
+            }
+        }
+
+        private void serve(Socket socket, int connection) {
+            try (socket) {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                OutputStream out = socket.getOutputStream();
+                reply(out, "220 localhost stub SMTP");
+                List<String> recipients = new ArrayList<>();
+                int messages = 0;
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                        reply(out, "250 localhost");
+                    } else if (command.startsWith("MAIL FROM")) {
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    } else if (command.startsWith("RCPT TO")) {
+                        String recipient = line.substring(line.indexOf('<') + 1, line.lastIndexOf('>'));
+                        if (recipient.startsWith("bounce@")) {
+                            reply(out, "550 No such user");
+                        } else {
+                            recipients.add(recipient);
+                            reply(out, "250 OK");
+                        }
+                    } else if (command.equals("DATA")) {
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // Message content is not checked
+                        }
+                        delivered.addAll(recipients);
+                        messages++;
+                        reply(out, "250 OK");
+                        if (connection == 1 && messages == dropFirstConnectionAfter) {
+                            return; // Hang up without a 421, as a crashed or restarted server would
+                        }
+                    } else if (command.equals("NOOP")) {
+                        noops.incrementAndGet();
+                        reply(out, "250 OK");
+                    } else if (command.equals("RSET")) {
+                        recipients.clear();
+                        reply(out, "250 OK");
+                    } else if (command.equals("QUIT")) {
+                        reply(out, "221 Bye");
+                        return;
+                    } else {
+                        reply(out, "502 Command not implemented");
+                    }
+                }
+            } catch (IOException e) {
+                // Connection closed by the test or the client
+            } finally {
+                openSockets.remove(socket);
+            }
+        }
+
+        private static void reply(OutputStream out, String line) throws IOException {
+            out.write((line + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+
+        private static void closeQuietly(Closeable closeable) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.MedicineReminder;
+import com.example.curebuddy_backend.repository.MedicineReminderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Two replicas sharing one reminder collection: changes are made through the node that holds no partitions,
+ * and the node that holds them all must dispatch the reminders as they are in Mongo, not as its wheel last saw them.
+ */
+class MedicineReminderSchedulerTest {
+
+    private static final String PATIENT = "patient@example.com";
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    // The shared collection, by id
+    private final Map<String, MedicineReminder> collection = new ConcurrentHashMap<>();
+
+    private NotificationOutboxService ownerOutbox;
+    private NotificationOutboxService otherOutbox;
+    private MedicineReminderScheduler owner;
+    private MedicineReminderScheduler other;
+
+    @BeforeEach
+    void setUp() {
+        MedicineReminderRepository repository = mock(MedicineReminderRepository.class);
+        when(repository.findByReminderTimeBetween(any())).thenAnswer(invocation -> {
+            Range<LocalTime> range = invocation.getArgument(0);
+            return collection.values().stream().filter(r -> range.contains(r.getReminderTime())).toList();
+        });
+
+        ownerOutbox = mock(NotificationOutboxService.class);
+        otherOutbox = mock(NotificationOutboxService.class);
+        owner = new MedicineReminderScheduler(repository, ownerOutbox, lease(true), new SimpleMeterRegistry(), 1, 10);
+        other = new MedicineReminderScheduler(repository, otherOutbox, lease(false), new SimpleMeterRegistry(), 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        owner.shutdown();
+        other.shutdown();
+    }
+
+    @Test
+    void theOwnerSendsAReminderCreatedOnAnotherReplica() {
+        MedicineReminder reminder = reminder("r1", LocalTime.of(8, 0));
+        createOn(other, reminder);
+
+        owner.dispatch(TODAY.atTime(8, 0), -1);
+
+        verify(ownerOutbox, timeout(2000)).enqueueEmail(contains(":r1:"), eq(PATIENT), anyString(), contains("Aspirin"));
+        verify(otherOutbox, after(300).never()).enqueueEmail(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void theOwnerDropsAReminderDeletedOnAnotherReplica() {
+        MedicineReminder reminder = reminder("r1", LocalTime.of(8, 0));
+        createOn(owner, reminder);
+
+        other.cancel("r1");
+        collection.remove("r1");
+        owner.dispatch(TODAY.atTime(8, 0), -1);
+
+        verify(ownerOutbox, after(300).never()).enqueueEmail(anyString(), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void theOwnerSendsAnEditedReminderAtItsNewTimeOnly() {
+        MedicineReminder reminder = reminder("r1", LocalTime.of(8, 0));
+        createOn(owner, reminder);
+
+        MedicineReminder edited = reminder("r1", LocalTime.of(9, 30));
+        edited.setMedicineName("Ibuprofen");
+        createOn(other, edited);
+
+        owner.dispatch(TODAY.atTime(8, 0), -1);
+        verify(ownerOutbox, after(300).never()).enqueueEmail(anyString(), anyString(), anyString(), anyString());
+
+        owner.dispatch(TODAY.atTime(9, 30), -1);
+        verify(ownerOutbox, timeout(2000)).enqueueEmail(contains(":r1:"), eq(PATIENT), anyString(), contains("Ibuprofen"));
+    }
+
+    @Test
+    void theLastMinuteOfTheDayIsReadToo() {
+        createOn(other, reminder("r1", LocalTime.of(23, 59, 30)));
+
+        owner.dispatch(TODAY.atTime(23, 59), -1);
+
+        verify(ownerOutbox, timeout(2000)).enqueueEmail(contains(":r1:"), eq(PATIENT), anyString(), anyString());
+    }
+
+    // What MedicineReminderController does: save to Mongo, then update the handling node's wheel
+    private void createOn(MedicineReminderScheduler node, MedicineReminder reminder) {
+        collection.put(reminder.getId(), copy(reminder));
+        node.schedule(reminder);
+    }
+
+    private static ReminderLeaseService lease(boolean ownsEverything) {
+        ReminderLeaseService lease = mock(ReminderLeaseService.class);
+        when(lease.ownsPatient(anyString())).thenReturn(ownsEverything);
+        return lease;
+    }
+
+    private static MedicineReminder reminder(String id, LocalTime time) {
+        MedicineReminder reminder = new MedicineReminder();
+        reminder.setId(id);
+        reminder.setPatientEmail(PATIENT);
+        reminder.setMedicineName("Aspirin");
+        reminder.setReminderTime(time);
+        return reminder;
+    }
+
+    private static MedicineReminder copy(MedicineReminder reminder) {
+        MedicineReminder copy = reminder(reminder.getId(), reminder.getReminderTime());
+        copy.setMedicineName(reminder.getMedicineName());
+        return copy;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.NotificationChannel;
+import com.example.curebuddy_backend.model.OutboxMessage;
+import com.mongodb.client.result.UpdateResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * SMS claims in NotificationOutboxService against a mocked notification_outbox: a message whose claim was lost
+ * while it waited for the rate limiter is not sent, and drain() claims no more SMS than the rate limit can send
+ * within half the sending timeout.
+ */
+class NotificationOutboxServiceTest {
+
+    private final List<String> smsSentTo = new CopyOnWriteArrayList<>();
+    private final List<Object> statusesRecorded = new CopyOnWriteArrayList<>();
+    private final CountDownLatch transportOpen = new CountDownLatch(1);
+
+    private MongoTemplate mongoTemplate;
+    private TwilioService twilioService;
+    private NotificationOutboxService outbox;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(OutboxMessage.class)))
+                .thenAnswer(invocation -> {
+                    recordStatus(invocation.getArgument(1));
+                    return UpdateResult.acknowledged(1, 1L, null);
+                });
+        // One SMS per second, as in application.properties
+        twilioService = new TwilioService((to, from, body) -> {
+            transportOpen.await();
+            smsSentTo.add(to);
+            return "SM-" + to;
+        }, 1, 1, 4, 100);
+        outbox = new NotificationOutboxService(mongoTemplate, mock(EmailService.class), twilioService,
+                new SimpleMeterRegistry(), 1, 100);
+        ReflectionTestUtils.setField(outbox, "maxAttempts", 8);
+        ReflectionTestUtils.setField(outbox, "initialBackoffMs", 5000L);
+        ReflectionTestUtils.setField(outbox, "maxBackoffMs", 3600000L);
+        ReflectionTestUtils.setField(outbox, "emailBatchSize", 50);
+        ReflectionTestUtils.setField(outbox, "smsBatchSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transportOpen.countDown();
+        outbox.shutdown();
+        twilioService.shutdown();
+    }
+
+    @Test
+    void skipsAnSmsWhoseClaimExpiredWhileItWaitedToBeSent() {
+        ReflectionTestUtils.setField(outbox, "sendingTimeoutMs", 300_000L);
+        transportOpen.countDown();
+        // m2's claim renews at batch start, then another worker takes it before its turn at the rate limiter
+        AtomicInteger m2Holds = new AtomicInteger();
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(OutboxMessage.class)))
+                .thenAnswer(invocation -> {
+                    Query query = invocation.getArgument(0);
+                    UpdateDefinition update = invocation.getArgument(1);
+                    recordStatus(update);
+                    boolean hold = !setFields(update).containsKey("status");
+                    if (hold && "m2".equals(query.getQueryObject().get("_id")) && m2Holds.incrementAndGet() > 1) {
+                        return UpdateResult.acknowledged(0, 0L, null);
+                    }
+                    return UpdateResult.acknowledged(1, 1L, null);
+                });
+
+        ReflectionTestUtils.invokeMethod(outbox, "deliverSms", List.of(sms("m1"), sms("m2"), sms("m3")));
+
+        assertEquals(List.of("+m1", "+m3"), smsSentTo.stream().sorted().toList());
+        // Only m1 and m3 are marked; m2's result belongs to the worker that now holds it
+        assertEquals(2, statusesRecorded.size());
+    }
+
+    @Test
+    void drainClaimsNoMoreSmsThanTheRateLimitCanSendBeforeTheClaimsExpire() {
+        // 1 SMS/s for half of 10 s: five claims
+        ReflectionTestUtils.setField(outbox, "sendingTimeoutMs", 10_000L);
+        AtomicInteger smsClaimed = new AtomicInteger();
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), any(FindAndModifyOptions.class),
+                eq(OutboxMessage.class))).thenAnswer(invocation -> {
+            Query query = invocation.getArgument(0);
+            if (query.getQueryObject().containsKey("channel")) {
+                return null; // No emails due
+            }
+            return sms("m" + smsClaimed.incrementAndGet());
+        });
+
+        ReflectionTestUtils.invokeMethod(outbox, "drain");
+
+        assertEquals(5, smsClaimed.get());
+    }
+
+    private void recordStatus(UpdateDefinition update) {
+        Object status = setFields(update).get("status");
+        if (status != null) {
+            statusesRecorded.add(status);
+        }
+    }
+
+    private static Document setFields(UpdateDefinition update) {
+        Object set = update.getUpdateObject().get("$set");
+        return set instanceof Document document ? document : new Document();
+    }
+
+    private static OutboxMessage sms(String id) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(id);
+        message.setIdempotencyKey("test:" + id + ":sms");
+        message.setChannel(NotificationChannel.SMS);
+        message.setRecipient("+" + id);
+        message.setBody("Take your medicine.");
+        message.setClaimToken("token-" + id);
+        message.setAttempts(1);
+        return message;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.OverpassTile;
+import com.example.curebuddy_backend.model.overpass.OverpassElement;
+import com.example.curebuddy_backend.util.Geohash;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Missing tiles go to Overpass in bounded chunks, and results Overpass marked incomplete never reach the cache.
+ */
+class OverpassTileCacheTest {
+
+    private static final String URL = "http://overpass.test/api/interpreter";
+    private static final double LAT = 13.06;
+    private static final double LON = 80.25;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer overpass = MockRestServiceServer.bindTo(restTemplate).build();
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+    @Test
+    void incompleteResultWithARemarkIsReturnedButNotCached() {
+        OverpassTileCache tiles = newCache(32);
+        String body = """
+                {"elements": [{"type": "node", "id": 1, "lat": %s, "lon": %s, "tags": {"amenity": "pharmacy"}}],
+                 "remark": "runtime error: Query timed out in \\"query\\" at line 1 after 30 seconds."}
+                """.formatted(LAT, LON);
+        overpass.expect(ExpectedCount.times(2), requestTo(startsWith(URL)))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+
+        Optional<List<OverpassElement>> first = tiles.elementsAround(OverpassTileCache.AmenityClass.PHARMACY, LAT, LON, 1_000);
+        Optional<List<OverpassElement>> second = tiles.elementsAround(OverpassTileCache.AmenityClass.PHARMACY, LAT, LON, 1_000);
+
+        assertEquals(1, first.orElseThrow().size());
+        assertEquals(1, second.orElseThrow().size());
+        overpass.verify(); // Asked Overpass again rather than serving the partial result from the cache
+        verify(mongoTemplate, never()).save(any(OverpassTile.class));
+    }
+
+    @Test
+    void missingTilesAreFetchedInChunks() {
+        int maxTilesPerQuery = 4;
+        OverpassTileCache tiles = newCache(maxTilesPerQuery);
+        int tileCount = Geohash.coveringTiles(LAT, LON, 10_000, 5).size();
+        int queries = (tileCount + maxTilesPerQuery - 1) / maxTilesPerQuery;
+        assertTrue(queries > 1);
+        overpass.expect(ExpectedCount.times(queries), requestTo(startsWith(URL)))
+                .andRespond(withSuccess("{\"elements\": []}", MediaType.APPLICATION_JSON));
+
+        assertTrue(tiles.elementsAround(OverpassTileCache.AmenityClass.PHARMACY, LAT, LON, 10_000).isPresent());
+        // Every tile is now cached, so this one is answered without Overpass
+        assertTrue(tiles.elementsAround(OverpassTileCache.AmenityClass.PHARMACY, LAT, LON, 10_000).isPresent());
+
+        overpass.verify();
+    }
+
+    private OverpassTileCache newCache(int maxTilesPerQuery) {
+        OverpassTileCache tiles = new OverpassTileCache(restTemplate, new ObjectMapper(), mongoTemplate,
+                new SimpleMeterRegistry(), 5, 60_000, 100_000, maxTilesPerQuery, 30_000);
+        ReflectionTestUtils.setField(tiles, "overpassUrl", URL);
+        return tiles;
+    }
+}
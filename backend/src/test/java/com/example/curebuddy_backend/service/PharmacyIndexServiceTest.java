@@ -0,0 +1,92 @@
+package com.example.curebuddy_backend.service;
+
+import com.example.curebuddy_backend.model.Pharmacy;
+import com.example.curebuddy_backend.model.overpass.OverpassElement;
+import com.example.curebuddy_backend.model.overpass.OverpassResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pharmacies answered from the offline index must read the same as the ones built from a live Overpass response.
+ */
+class PharmacyIndexServiceTest {
+
+    private static final String EXTRACT = """
+            {"elements": [
+              {"type": "node", "id": 1, "lat": 13.0600, "lon": 80.2500,
+               "tags": {"amenity": "pharmacy", "name": "Apollo Pharmacy", "addr:housenumber": "12",
+                        "addr:street": "MG Road", "addr:postcode": "560001"}},
+              {"type": "node", "id": 2, "lat": 13.0610, "lon": 80.2510,
+               "tags": {"amenity": "pharmacy", "name": "MedPlus", "addr:street": "Anna Salai",
+                        "addr:city": "Chennai", "addr:postcode": "600002"}},
+              {"type": "node", "id": 3, "lat": 13.0620, "lon": 80.2520,
+               "tags": {"amenity": "pharmacy", "name": "Corner Chemist"}}
+            ]}
+            """;
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void writeExtract() throws IOException {
+        Files.writeString(dir.resolve("pharmacies.json"), EXTRACT);
+    }
+
+    @Test
+    void untaggedCityIsFormattedLikeTheOverpassPath() throws IOException {
+        PharmacyIndexService index = newIndex();
+        index.rebuild();
+
+        assertSameAsOverpass(index.findWithin(13.06, 80.25, 5_000, "Chennai").orElseThrow(), "Chennai");
+        assertEquals("12 MG Road, Chennai - 560001",
+                index.findWithin(13.06, 80.25, 5_000, "Chennai").orElseThrow().get(0).getAddress());
+    }
+
+    @Test
+    void snapshotKeepsTheAddressParts() throws IOException {
+        newIndex().rebuild();
+
+        PharmacyIndexService restarted = newIndex();
+        Files.delete(dir.resolve("pharmacies.json"));
+        ReflectionTestUtils.invokeMethod(restarted, "load");
+
+        assertSameAsOverpass(restarted.findWithin(13.06, 80.25, 5_000, "Chennai").orElseThrow(), "Chennai");
+    }
+
+    private void assertSameAsOverpass(List<Pharmacy> indexed, String city) throws IOException {
+        List<OverpassElement> elements = objectMapper.readValue(EXTRACT, OverpassResponse.class).getElements();
+        Map<String, Pharmacy> fromOverpass = new HashMap<>();
+        for (OverpassElement element : elements) {
+            Pharmacy pharmacy = PharmacyService.convertToPharmacy(element, city);
+            fromOverpass.put(pharmacy.getId(), pharmacy);
+        }
+
+        assertEquals(3, indexed.size());
+        for (Pharmacy pharmacy : indexed) {
+            assertEquals(fromOverpass.get(pharmacy.getId()), pharmacy);
+        }
+    }
+
+    private PharmacyIndexService newIndex() {
+        PharmacyIndexService index = new PharmacyIndexService(objectMapper);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "sourceFile", dir.resolve("pharmacies.json"));
+        ReflectionTestUtils.setField(index, "snapshotFile", dir.resolve("pharmacy-index.bin"));
+        ReflectionTestUtils.setField(index, "cellDegrees", 0.05);
+        return index;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.curebuddy_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * visitWithin must report exactly the points a brute-force haversine scan finds, with the same distances.
+ */
+class GeoGridIndexTest {
+
+    @Test
+    void radiusQueriesMatchABruteForceScan() {
+        Random random = new Random(42);
+        for (double cellDegrees : new double[]{0.01, 0.05, 0.5}) {
+            // Around Chennai, plus a high latitude where a degree of longitude is short
+            for (double[] centre : new double[][]{{13.08, 80.27}, {64.0, 10.0}}) {
+                int n = 20_000;
+                double[] lats = new double[n];
+                double[] lons = new double[n];
+                for (int i = 0; i < n; i++) {
+                    lats[i] = centre[0] + (random.nextDouble() - 0.5) * 0.6;
+                    lons[i] = centre[1] + (random.nextDouble() - 0.5) * 0.6;
+                }
+                GeoGridIndex index = new GeoGridIndex(lats, lons, cellDegrees);
+                assertEquals(n, index.size());
+
+                for (int query = 0; query < 50; query++) {
+                    double lat = centre[0] + (random.nextDouble() - 0.5) * 0.4;
+                    double lon = centre[1] + (random.nextDouble() - 0.5) * 0.4;
+                    double radius = 500 + random.nextDouble() * 15_000;
+
+                    Map<Integer, Double> expected = new TreeMap<>();
+                    for (int i = 0; i < n; i++) {
+                        double distance = GeoUtils.haversineMeters(lat, lon, lats[i], lons[i]);
+                        if (distance <= radius) {
+                            expected.put(i, distance);
+                        }
+                    }
+                    Map<Integer, Double> actual = new TreeMap<>();
+                    index.visitWithin(lat, lon, radius, actual::put);
+
+                    assertEquals(expected, actual, "cell " + cellDegrees + ", query (" + lat + ", " + lon + ") r=" + radius);
+                }
+            }
+        }
+    }
+
+    @Test
+    void findsPointsJustInsideTheRadiusInEveryDirection() {
+        // Shifted through a whole cell, so the circle's edge lands on and beside cell boundaries
+        for (int step = 0; step < 100; step++) {
+            assertFindsRing(13.08 + step * 0.0001, 80.27 + step * 0.0001);
+        }
+    }
+
+    private static void assertFindsRing(double lat, double lon) {
+        double radius = 10_000;
+        int n = 360;
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            // 1 m inside the circle, on the bearing of i degrees
+            double bearing = Math.toRadians(i);
+            double angular = (radius - 1) / GeoUtils.EARTH_RADIUS_METERS;
+            double lat1 = Math.toRadians(lat);
+            double lat2 = Math.asin(Math.sin(lat1) * Math.cos(angular) + Math.cos(lat1) * Math.sin(angular) * Math.cos(bearing));
+            double lon2 = Math.toRadians(lon) + Math.atan2(Math.sin(bearing) * Math.sin(angular) * Math.cos(lat1),
+                    Math.cos(angular) - Math.sin(lat1) * Math.sin(lat2));
+            lats[i] = Math.toDegrees(lat2);
+            lons[i] = Math.toDegrees(lon2);
+        }
+
+        Map<Integer, Double> found = new TreeMap<>();
+        new GeoGridIndex(lats, lons, 0.01).visitWithin(lat, lon, radius, found::put);
+
+        assertEquals(n, found.size(), "ring around (" + lat + ", " + lon + ")");
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.curebuddy_backend.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Callers arriving while a call is in flight share its outcome, but never wait past the timeout for it.
+ */
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService leader = Executors.newSingleThreadExecutor();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        leader.shutdownNow();
+    }
+
+    @Test
+    void waiterSharesTheLeadersResult() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", meterRegistry, 5_000);
+        Future<String> first = leader.submit(() -> flight.execute("chennai", this::blockUntilReleased, () -> "fallback"));
+        started.await(5, TimeUnit.SECONDS);
+
+        releaseLater();
+        assertEquals("leader", flight.execute("chennai", () -> "second call", () -> "fallback"));
+        assertEquals("leader", first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, count("coalesced"));
+    }
+
+    @Test
+    void waiterFallsBackWhenTheLeaderTakesTooLong() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", meterRegistry, 100);
+        Future<String> first = leader.submit(() -> flight.execute("chennai", this::blockUntilReleased, () -> "fallback"));
+        started.await(5, TimeUnit.SECONDS);
+
+        assertEquals("fallback", flight.execute("chennai", () -> "second call", () -> "fallback"));
+        assertEquals(1, count("timed-out"));
+
+        release.countDown();
+        assertEquals("leader", first.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void waiterGetsTheLeadersException() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", meterRegistry, 5_000);
+        Future<String> first = leader.submit(() -> flight.execute("chennai", () -> {
+            blockUntilReleased();
+            throw new IllegalStateException("upstream down");
+        }, () -> "fallback"));
+        started.await(5, TimeUnit.SECONDS);
+
+        releaseLater();
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> flight.execute("chennai", () -> "second call", () -> "fallback"));
+        assertEquals("upstream down", thrown.getMessage());
+        assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+    }
+
+    private String blockUntilReleased() {
+        started.countDown();
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "leader";
+    }
+
+    // Long enough for the calling thread to have joined the flight before it completes
+    private void releaseLater() {
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        releaser.setDaemon(true);
+        releaser.start();
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("singleflight.calls").tag("outcome", outcome).counter().count();
+    }
+}
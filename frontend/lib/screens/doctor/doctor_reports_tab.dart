@@ -61,6 +61,9 @@ class _DoctorReportsTabState extends State<DoctorReportsTab> {
   List<PatientReport> _displayInMainList = []; // For the main searchable list
 
   bool _isLoading = true;
+  bool _isLoadingMore = false;
+  String? _nextCursor; // Cursor of the next page; null once every page is loaded
+  final ScrollController _scrollController = ScrollController();
   String _errorMessage = '';
   String _searchQuery = '';
   final TextEditingController _searchController = TextEditingController();
@@ -77,11 +80,18 @@ class _DoctorReportsTabState extends State<DoctorReportsTab> {
         _applySearch();
       }
     });
+    // The next page is only requested once the doctor scrolls near the end of what is loaded
+    _scrollController.addListener(() {
+      if (_scrollController.position.pixels >= _scrollController.position.maxScrollExtent - 300) {
+        _loadMoreReports();
+      }
+    });
   }
 
   @override
   void dispose() {
     _searchController.dispose();
+    _scrollController.dispose();
     super.dispose();
   }
 
@@ -103,22 +113,13 @@ class _DoctorReportsTabState extends State<DoctorReportsTab> {
         if (mounted) Navigator.of(context).pushReplacementNamed('/login');
         return;
       }
-      final List<dynamic> responseData = await ApiService.getDoctorPatientReports(token);
+      final page = await ApiService.getDoctorPatientReports(token);
       if (mounted) {
-        _allFetchedReports = responseData
+        _allFetchedReports = (page['reports'] as List<dynamic>)
             .map((data) => PatientReport.fromJson(data as Map<String, dynamic>))
             .toList();
-
-        _allFetchedReports.sort((a, b) { // Sort all reports
-          bool aIsPending = a.doctorRemarks == null || a.doctorRemarks!.isEmpty;
-          bool bIsPending = b.doctorRemarks == null || b.doctorRemarks!.isEmpty;
-          if (aIsPending && !bIsPending) return -1;
-          if (!aIsPending && bIsPending) return 1;
-          if (a.uploadedAt != null && b.uploadedAt != null) {
-            return b.uploadedAt!.compareTo(a.uploadedAt!);
-          }
-          return (a.fileName).compareTo(b.fileName);
-        });
+        _nextCursor = page['nextCursor'] as String?;
+        _sortReports();
 
         _applySearch(); // This will also update previews
         setState(() => _isLoading = false);
@@ -133,6 +134,45 @@ class _DoctorReportsTabState extends State<DoctorReportsTab> {
     }
   }
 
+  Future<void> _loadMoreReports() async {
+    if (_isLoading || _isLoadingMore || _nextCursor == null) return;
+    setState(() => _isLoadingMore = true);
+    try {
+      final prefs = await SharedPreferences.getInstance();
+      final token = prefs.getString('token');
+      if (token == null) return;
+      final page = await ApiService.getDoctorPatientReports(token, cursor: _nextCursor);
+      if (mounted) {
+        _allFetchedReports.addAll((page['reports'] as List<dynamic>)
+            .map((data) => PatientReport.fromJson(data as Map<String, dynamic>)));
+        _nextCursor = page['nextCursor'] as String?;
+        _sortReports();
+        _applySearch();
+      }
+    } catch (e) {
+      if (mounted) {
+        ScaffoldMessenger.of(context).showSnackBar(
+          SnackBar(content: Text('Failed to load more reports: ${e.toString().replaceFirst("Exception: ", "")}')),
+        );
+      }
+    } finally {
+      if (mounted) setState(() => _isLoadingMore = false);
+    }
+  }
+
+  void _sortReports() {
+    _allFetchedReports.sort((a, b) { // Sort the loaded reports
+      bool aIsPending = a.doctorRemarks == null || a.doctorRemarks!.isEmpty;
+      bool bIsPending = b.doctorRemarks == null || b.doctorRemarks!.isEmpty;
+      if (aIsPending && !bIsPending) return -1;
+      if (!aIsPending && bIsPending) return 1;
+      if (a.uploadedAt != null && b.uploadedAt != null) {
+        return b.uploadedAt!.compareTo(a.uploadedAt!);
+      }
+      return (a.fileName).compareTo(b.fileName);
+    });
+  }
+
   void _applySearch() {
     List<PatientReport> filteredFromAll;
     final query = _searchController.text.toLowerCase();
@@ -230,6 +270,8 @@ class _DoctorReportsTabState extends State<DoctorReportsTab> {
               onRefresh: () => _fetchPatientReports(),
               color: Colors.deepPurple,
               child: ListView(
+                controller: _scrollController,
+                physics: const AlwaysScrollableScrollPhysics(),
                 padding: const EdgeInsets.symmetric(vertical: 8.0),
                 children: [
                   // Quick Access: Pending Review
@@ -281,6 +323,11 @@ class _DoctorReportsTabState extends State<DoctorReportsTab> {
                         return _buildReportListItem(context, theme, report);
                       },
                     ),
+                  if (_isLoadingMore)
+                    const Padding(
+                      padding: EdgeInsets.all(16.0),
+                      child: Center(child: CircularProgressIndicator(color: Colors.deepPurple)),
+                    ),
                 ],
               ),
             ),
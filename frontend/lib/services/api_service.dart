@@ -269,18 +269,26 @@ class ApiService {
     ];
   }
 
-  static Future<List<dynamic>> getDoctorPatientReports(String token) async {
-    final url = Uri.parse('$baseUrl/doctor/patient-reports');
+  // One page of reports, newest first: {'reports': [...], 'nextCursor': String?}.
+  // Pass nextCursor back as cursor for the following page; it is null on the last page.
+  static Future<Map<String, dynamic>> getDoctorPatientReports(String token, {String? cursor, int pageSize = 50}) async {
     try {
+      final url = Uri.parse('$baseUrl/doctor/patient-reports').replace(queryParameters: {
+        'limit': '$pageSize',
+        if (cursor != null) 'cursor': cursor,
+      });
       final response = await http.get(
         url,
         headers: {'Authorization': 'Bearer $token'},
       ).timeout(const Duration(seconds:15));
-      if (response.statusCode == 200) {
-        return jsonDecode(response.body);
-      } else {
+      if (response.statusCode != 200) {
         throw Exception('Failed to fetch patient reports: ${response.body}');
       }
+      final nextCursor = response.headers['x-next-cursor'];
+      return {
+        'reports': jsonDecode(response.body) as List<dynamic>,
+        'nextCursor': nextCursor != null && nextCursor.isNotEmpty ? nextCursor : null,
+      };
     } catch (e) {
       throw Exception('Failed to fetch patient reports: ${e.toString()}');
     }